@@ -0,0 +1,250 @@
+package info.jayharris.othello;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Shift-and-mask operations on 64-bit boards.
+ *
+ * Bit {@code rank * 8 + file} represents the square at ({@code rank}, {@code file}),
+ * so bit 0 is a1 (the top left corner) and bit 63 is h8.
+ */
+public class Bitboards {
+
+    public static final long EMPTY = 0L;
+    public static final long FULL = ~0L;
+
+    static final long NOT_FILE_A = 0xfefefefefefefefeL;
+    static final long NOT_FILE_H = 0x7f7f7f7f7f7f7f7fL;
+
+    /**
+     * Shift amounts for each direction, in the order of {@link BoardUtils.Direction}.
+     * Positive values shift left (towards h8), negative values shift right.
+     */
+    static final int[] SHIFTS = { -9, -8, -7, 1, 9, 8, 7, -1 };
+
+    /**
+     * Masks applied after shifting in each direction to discard bits that wrapped
+     * around the edge of the board.
+     */
+    static final long[] WRAP_MASKS = {
+            NOT_FILE_H, FULL, NOT_FILE_A, NOT_FILE_A, NOT_FILE_A, FULL, NOT_FILE_H, NOT_FILE_H
+    };
+
+    /**
+     * Returns the single-bit mask of the given square.
+     *
+     * @param square the square index
+     * @return the mask
+     */
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * Returns the single-bit mask of the given square.
+     *
+     * @param rank the rank
+     * @param file the file
+     * @return the mask
+     */
+    public static long bit(int rank, int file) {
+        return 1L << (rank * Board.SIZE + file);
+    }
+
+    static long shift(long b, int direction) {
+        int s = SHIFTS[direction];
+        return (s > 0 ? b << s : b >>> -s) & WRAP_MASKS[direction];
+    }
+
+    /**
+     * Returns every square adjacent to at least one square in {@code b}.
+     *
+     * @param b the board
+     * @return the neighbors of {@code b}, which may overlap {@code b}
+     */
+    public static long neighbors(long b) {
+        long east = (b << 1) & NOT_FILE_A;
+        long west = (b >>> 1) & NOT_FILE_H;
+        long row = b | east | west;
+        return (east | west | (row << 8) | (row >>> 8));
+    }
+
+    /**
+     * Computes every legal move for the side owning {@code own}, using a
+     * Kogge-Stone occluded fill in each of the eight directions.
+     *
+     * @param own the discs of the side to move
+     * @param opp the discs of the opponent
+     * @return the set of legal moves
+     */
+    public static long legalMoves(long own, long opp) {
+        long empty = ~(own | opp);
+        long moves = 0L;
+
+        for (int d = 0; d < SHIFTS.length; ++d) {
+            int s = SHIFTS[d];
+            long mask = WRAP_MASKS[d];
+            long pro = opp & mask;
+            long gen = own;
+
+            if (s > 0) {
+                gen |= pro & (gen << s);
+                long p = pro & (pro << s);
+                gen |= p & (gen << (s << 1));
+                p &= p << (s << 1);
+                gen |= p & (gen << (s << 2));
+                moves |= ((gen & opp) << s) & mask & empty;
+            }
+            else {
+                s = -s;
+                gen |= pro & (gen >>> s);
+                long p = pro & (pro >>> s);
+                gen |= p & (gen >>> (s << 1));
+                p &= p >>> (s << 1);
+                gen |= p & (gen >>> (s << 2));
+                moves |= ((gen & opp) >>> s) & mask & empty;
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Computes the discs that would be flipped if the side owning {@code own}
+     * played on {@code square}. Does not check that the square is empty.
+     *
+     * @param square the square index
+     * @param own the discs of the side to move
+     * @param opp the discs of the opponent
+     * @return the set of flipped discs, or zero if the move is illegal
+     */
+    public static long flips(int square, long own, long opp) {
+        long move = 1L << square;
+        long flipped = 0L;
+
+        for (int d = 0; d < SHIFTS.length; ++d) {
+            long line = 0L;
+            long x = shift(move, d);
+            while ((x & opp) != 0) {
+                line |= x;
+                x = shift(x, d);
+            }
+            if ((x & own) != 0) {
+                flipped |= line;
+            }
+        }
+        return flipped;
+    }
+
+    /** The number of symmetries of the board, counting the identity. */
+    public static final int SYMMETRIES = 8;
+
+    /**
+     * Applies one of the board's eight symmetries. Symmetry {@code s} first
+     * reflects top to bottom if bit 0 of {@code s} is set, then left to right
+     * if bit 1 is set, then across the a1-h8 diagonal if bit 2 is set.
+     * Symmetry 0 is the identity.
+     *
+     * @param b the board
+     * @param symmetry the symmetry, from 0 to 7
+     * @return the transformed board
+     */
+    public static long transform(long b, int symmetry) {
+        if ((symmetry & 1) != 0) {
+            b = flipVertical(b);
+        }
+        if ((symmetry & 2) != 0) {
+            b = mirrorHorizontal(b);
+        }
+        if ((symmetry & 4) != 0) {
+            b = flipDiagonal(b);
+        }
+        return b;
+    }
+
+    /**
+     * Undoes {@link #transform(long, int)}.
+     *
+     * @param b the transformed board
+     * @param symmetry the symmetry it was transformed by
+     * @return the original board
+     */
+    public static long untransform(long b, int symmetry) {
+        if ((symmetry & 4) != 0) {
+            b = flipDiagonal(b);
+        }
+        if ((symmetry & 2) != 0) {
+            b = mirrorHorizontal(b);
+        }
+        if ((symmetry & 1) != 0) {
+            b = flipVertical(b);
+        }
+        return b;
+    }
+
+    /**
+     * Swaps rank 1 with rank 8, rank 2 with rank 7, and so on.
+     */
+    public static long flipVertical(long b) {
+        return Long.reverseBytes(b);
+    }
+
+    /**
+     * Swaps file a with file h, file b with file g, and so on.
+     */
+    public static long mirrorHorizontal(long b) {
+        b = ((b >>> 1) & 0x5555555555555555L) | ((b & 0x5555555555555555L) << 1);
+        b = ((b >>> 2) & 0x3333333333333333L) | ((b & 0x3333333333333333L) << 2);
+        return ((b >>> 4) & 0x0f0f0f0f0f0f0f0fL) | ((b & 0x0f0f0f0f0f0f0f0fL) << 4);
+    }
+
+    /**
+     * Reflects across the a1-h8 diagonal, swapping each square's rank and file.
+     */
+    public static long flipDiagonal(long b) {
+        long t = 0x0f0f0f0f00000000L & (b ^ (b << 28));
+        b ^= t ^ (t >>> 28);
+        t = 0x3333000033330000L & (b ^ (b << 14));
+        b ^= t ^ (t >>> 14);
+        t = 0x5500550055005500L & (b ^ (b << 7));
+        return b ^ t ^ (t >>> 7);
+    }
+
+    /**
+     * An iterator over the square indexes of the bits set in a mask, lowest
+     * first. It can be {@link #reset(long) reset} and reused so that walking a
+     * mask doesn't allocate.
+     */
+    public static class SquareIterator implements PrimitiveIterator.OfInt {
+
+        long remaining;
+
+        public SquareIterator() {
+            this(EMPTY);
+        }
+
+        public SquareIterator(long mask) {
+            this.remaining = mask;
+        }
+
+        public SquareIterator reset(long mask) {
+            this.remaining = mask;
+            return this;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining != 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            int square = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            return square;
+        }
+    }
+}
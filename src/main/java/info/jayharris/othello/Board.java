@@ -1,49 +1,42 @@
 package info.jayharris.othello;
 
 import info.jayharris.othello.BoardUtils.Direction;
-import info.jayharris.othello.BoardUtils.DirectionalIterator;
 import info.jayharris.othello.Othello.Color;
-import org.apache.commons.collections4.IteratorUtils;
-import org.apache.commons.collections4.iterators.ZippingIterator;
 import org.apache.commons.lang3.Validate;
 
 import java.util.*;
-import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 public class Board {
 
     public static final int SIZE = 8;
 
-    private final Square[][] squares;
-    private final Set<Square> occupied;             // squares that are currently occupied
-    private final Set<Square> potentialMoves;       // squares that are unoccupied and adjacent to at least one occupied square
+    private final Square[] squares;                 // created on demand, indexed by rank * SIZE + file
+    private long black, white;                      // one bit per square, see Bitboards
+    private Color toMove;
+    private long key;                               // Zobrist key, updated on every change
 
-    private Board() {
-        squares = new Square[SIZE][SIZE];
-        for (int rank = 0; rank < SIZE; ++rank) {
-            for (int file = 0; file < SIZE; ++file) {
-                squares[rank][file] = new Square(rank, file);
-            }
-        }
+    private long blackMoves, whiteMoves;            // legal moves, cached until the discs change
+    private boolean blackMovesValid, whiteMovesValid;
 
-        occupied = new HashSet<>();
-        potentialMoves = new HashSet<>();
+    private Board() {
+        squares = new Square[SIZE * SIZE];
+        toMove = Color.BLACK;
     }
 
     private Board(Board original) {
         this();
 
-        for (int rank = 0; rank < SIZE; ++rank) {
-            for (int file = 0; file < SIZE; ++file) {
-                this.getSquare(rank, file).setColor(original.getSquare(rank, file).getColor());
-            }
-        }
+        this.black = original.black;
+        this.white = original.white;
+        this.toMove = original.toMove;
+        this.key = original.key;
 
-        original.getOccupied().forEach(originalSquare ->
-            this.occupied.add(this.getSquare(originalSquare.RANK, originalSquare.FILE)));
-        original.getPotentialMoves().forEach(originalSquare ->
-            this.potentialMoves.add(this.getSquare(originalSquare.RANK, originalSquare.FILE)));
+        this.blackMoves = original.blackMoves;
+        this.whiteMoves = original.whiteMoves;
+        this.blackMovesValid = original.blackMovesValid;
+        this.whiteMovesValid = original.whiteMovesValid;
     }
 
     /**
@@ -54,32 +47,239 @@ public class Board {
      * @throws IllegalArgumentException if this is not a legal move
      */
     public void setPiece(Square square, Color color) {
-        Validate.isTrue(square.isLegalMove(color));
+        play(square, color);
+    }
+
+    /**
+     * Puts a disc of the given color on the given square, if it's a legal move,
+     * and returns a record that {@link #undo(Move)} can use to take it back.
+     *
+     * @param square the square
+     * @param color the color
+     * @return the move that was played
+     * @throws IllegalArgumentException if this is not a legal move
+     */
+    public Move play(Square square, Color color) {
+        return play(square.index, color);
+    }
 
-        square.setColor(color);
-        flipInAllDirections(square, color);
+    /**
+     * Puts a disc of the given color on the square with the given index, if it's
+     * a legal move, and returns a record that {@link #undo(Move)} can use to take
+     * it back.
+     *
+     * @param index the square index
+     * @param color the color
+     * @return the move that was played
+     * @throws IllegalArgumentException if this is not a legal move
+     */
+    public Move play(int index, Color color) {
+        long flipped = getFlips(index, color);
+        Validate.isTrue(flipped != 0);
 
-        occupied.add(square);
-        potentialMoves.remove(square);
-        potentialMoves.addAll(
-                square.getNeighbors().stream()
-                        .filter(Square::isUnoccupied)
-                        .collect(Collectors.toSet()));
+        return play(index, flipped, color);
     }
 
-    private void flipInAllDirections(Square square, Color color) {
-        Consumer<Direction> flipDirection = (direction) -> flipInDirection(square, color, direction);
-        EnumSet.allOf(Direction.class).forEach(flipDirection);
+    /**
+     * Puts a disc of the given color on the square with the given index and
+     * flips {@code flipped}, which must have come from {@link #getFlips(int, Color)}
+     * on this position. The move is not checked again.
+     *
+     * @param index the square index
+     * @param flipped the discs flipped by the move
+     * @param color the color
+     * @return the move that was played
+     */
+    public Move play(int index, long flipped, Color color) {
+        Move move = new Move(index, flipped, color, toMove);
+        apply(move);
+        return move;
     }
 
-    private void flipInDirection(Square square, Color color, Direction direction) {
-        if (square.willFlipLine(color, direction)) {
-            DirectionalIterator iter = BoardUtils.directionalIterator(square, direction);
-            Square next = iter.next();
-            do {
-                next.flip();
-            } while ((next = iter.next()).getColor() != color);
+    /**
+     * Takes back a move. Moves must be taken back in the reverse of the order
+     * in which they were played.
+     *
+     * @param move the last move played on this board
+     */
+    public void undo(Move move) {
+        long placed = 1L << move.index;
+        if (move.color == Color.BLACK) {
+            black &= ~(placed | move.flipped);
+            white |= move.flipped;
+        }
+        else {
+            white &= ~(placed | move.flipped);
+            black |= move.flipped;
         }
+
+        key ^= Zobrist.disc(move.color, move.index) ^ Zobrist.flips(move.flipped);
+        setToMove(move.toMove);
+        invalidateLegalMoves();
+    }
+
+    private void apply(Move move) {
+        long placed = 1L << move.index;
+        if (move.color == Color.BLACK) {
+            black |= placed | move.flipped;
+            white &= ~move.flipped;
+        }
+        else {
+            white |= placed | move.flipped;
+            black &= ~move.flipped;
+        }
+
+        key ^= Zobrist.disc(move.color, move.index) ^ Zobrist.flips(move.flipped);
+        setToMove(move.color.opposite());
+        invalidateLegalMoves();
+    }
+
+    private void invalidateLegalMoves() {
+        blackMovesValid = whiteMovesValid = false;
+    }
+
+    /**
+     * Passes the turn to the other side without playing a disc.
+     */
+    public void pass() {
+        setToMove(toMove.opposite());
+    }
+
+    private void setToMove(Color color) {
+        if (color != toMove) {
+            key ^= Zobrist.WHITE_TO_MOVE;
+            toMove = color;
+        }
+    }
+
+    /**
+     * Returns the color whose turn it is, which is the opposite of the color
+     * of the last move played unless someone has passed since.
+     *
+     * @return the side to move
+     */
+    public Color getSideToMove() {
+        return toMove;
+    }
+
+    /**
+     * Returns the Zobrist key of the position, including the side to move. The
+     * key is updated incrementally as moves are played.
+     *
+     * @return the key
+     */
+    public long getZobristKey() {
+        return key;
+    }
+
+    /**
+     * Returns the discs that {@code color} playing on {@code square} would
+     * flip, without changing the board.
+     *
+     * @param square the square
+     * @param color the color
+     * @return the flipped discs as a mask, or zero if this is not a legal move
+     */
+    public long getFlips(Square square, Color color) {
+        return getFlips(square.index, color);
+    }
+
+    /**
+     * Returns the discs that {@code color} playing on the square with the given
+     * index would flip, without changing the board.
+     *
+     * @param index the square index
+     * @param color the color
+     * @return the flipped discs as a mask, or zero if this is not a legal move
+     */
+    public long getFlips(int index, Color color) {
+        if (!isUnoccupied(index)) {
+            return 0L;
+        }
+        if ((color == Color.BLACK ? blackMovesValid : whiteMovesValid) && (legalMoves(color) & (1L << index)) == 0) {
+            return 0L;
+        }
+        return color == Color.BLACK ?
+                Bitboards.flips(index, black, white) :
+                Bitboards.flips(index, white, black);
+    }
+
+    /**
+     * Returns every legal move for {@code color} as a mask with one bit per
+     * square (see {@link Bitboards}). The result is cached until the discs on
+     * the board change, so pass detection and move generation in the same ply
+     * share one computation.
+     *
+     * @param color the color
+     * @return the legal moves
+     */
+    public long legalMoves(Color color) {
+        if (color == Color.BLACK) {
+            if (!blackMovesValid) {
+                blackMoves = Bitboards.legalMoves(black, white);
+                blackMovesValid = true;
+            }
+            return blackMoves;
+        }
+        else {
+            if (!whiteMovesValid) {
+                whiteMoves = Bitboards.legalMoves(white, black);
+                whiteMovesValid = true;
+            }
+            return whiteMoves;
+        }
+    }
+
+    /**
+     * Returns the squares occupied by {@code color} discs as a mask with one
+     * bit per square.
+     *
+     * @param color the color
+     * @return the discs
+     */
+    public long getDiscs(Color color) {
+        return color == Color.BLACK ? black : white;
+    }
+
+    private long occupied() {
+        return black | white;
+    }
+
+    private boolean isUnoccupied(int index) {
+        return ((black | white) & (1L << index)) == 0;
+    }
+
+    private Color getColor(int index) {
+        long bit = 1L << index;
+        if ((black & bit) != 0) {
+            return Color.BLACK;
+        }
+        if ((white & bit) != 0) {
+            return Color.WHITE;
+        }
+        return null;
+    }
+
+    private void setColor(int index, Color color) {
+        Color current = getColor(index);
+        if (current != null) {
+            key ^= Zobrist.disc(current, index);
+        }
+
+        long bit = 1L << index;
+        black &= ~bit;
+        white &= ~bit;
+        if (color == Color.BLACK) {
+            black |= bit;
+        }
+        else if (color == Color.WHITE) {
+            white |= bit;
+        }
+
+        if (color != null) {
+            key ^= Zobrist.disc(color, index);
+        }
+        invalidateLegalMoves();
     }
 
     /**
@@ -93,7 +293,7 @@ public class Board {
     }
 
     private boolean hasMoveFor(Color color) {
-        return potentialMoves.stream().anyMatch(it -> it.isLegalMove(color));
+        return legalMoves(color) != 0;
     }
 
     public Square getSquare(Square s) {
@@ -101,7 +301,21 @@ public class Board {
     }
 
     public Square getSquare(int rank, int file) {
-        return squares[rank][file];
+        return getSquare(rank * SIZE + file);
+    }
+
+    /**
+     * Returns the square with the given index, which is {@code rank * SIZE + file}.
+     *
+     * @param index the index
+     * @return the square
+     */
+    public Square getSquare(int index) {
+        Square square = squares[index];
+        if (square == null) {
+            square = squares[index] = new Square(index / SIZE, index % SIZE);
+        }
+        return square;
     }
 
     /**
@@ -121,7 +335,7 @@ public class Board {
      * @return an unmodifiable view of the set of occupied squares
      */
     public Set<Square> getOccupied() {
-        return Collections.unmodifiableSet(occupied);
+        return new SquareSet(this::occupied);
     }
 
     /**
@@ -130,7 +344,17 @@ public class Board {
      * @return an unmodifiable view of the set of potential moves
      */
     public Set<Square> getPotentialMoves() {
-        return Collections.unmodifiableSet(potentialMoves);
+        return new SquareSet(() -> Bitboards.neighbors(occupied()) & ~occupied());
+    }
+
+    /**
+     * Returns the squares in a mask.
+     *
+     * @param mask the mask
+     * @return an unmodifiable set of the squares whose bits are set in {@code mask}
+     */
+    public Set<Square> getSquares(long mask) {
+        return new SquareSet(() -> mask);
     }
 
     /**
@@ -146,23 +370,43 @@ public class Board {
         int s = SIZE / 2;
         int e = SIZE / 2;
 
-        board.squares[n][w].setColor(Color.WHITE);
-        board.squares[n][e].setColor(Color.BLACK);
-        board.squares[s][w].setColor(Color.BLACK);
-        board.squares[s][e].setColor(Color.WHITE);
+        board.setColor(n * SIZE + w, Color.WHITE);
+        board.setColor(n * SIZE + e, Color.BLACK);
+        board.setColor(s * SIZE + w, Color.BLACK);
+        board.setColor(s * SIZE + e, Color.WHITE);
 
-        board.occupied.addAll(Arrays.asList(
-                board.squares[n][w], board.squares[n][e], board.squares[s][w], board.squares[s][e]));
+        return board;
+    }
 
-        board.potentialMoves.addAll(
-                board.occupied.stream()
-                        .flatMap(square -> square.getNeighbors().stream())
-                        .filter(Square::isUnoccupied)
-                        .collect(Collectors.toSet()));
+    /**
+     * Creates a board with the given discs and side to move.
+     *
+     * @param black the black discs
+     * @param white the white discs
+     * @param toMove the side to move
+     * @return the board
+     */
+    static Board of(long black, long white, Color toMove) {
+        Validate.isTrue((black & white) == 0, "squares can't hold both colors");
 
+        Board board = new Board();
+        board.black = black;
+        board.white = white;
+        board.toMove = toMove;
+        board.key = Zobrist.key(black, white, toMove);
         return board;
     }
 
+    /**
+     * Returns an immutable snapshot of the current position, which can be
+     * shared between threads.
+     *
+     * @return the snapshot
+     */
+    public BoardSnapshot snapshot() {
+        return new BoardSnapshot(black, white, toMove, key);
+    }
+
     /**
      * Creates a deep copy of the original board.
      *
@@ -173,8 +417,45 @@ public class Board {
         return new Board(original);
     }
 
+    /**
+     * Returns the number of {@code color} discs on the board.
+     *
+     * @param color the color
+     * @return the number of discs
+     */
     public long count(Color color) {
-        return occupied.stream().filter(square -> square.getColor() == color).count();
+        return Long.bitCount(color == Color.BLACK ? black : white);
+    }
+
+    /**
+     * Returns the number of unoccupied squares.
+     *
+     * @return the number of empty squares
+     */
+    public int countEmpty() {
+        return SIZE * SIZE - Long.bitCount(occupied());
+    }
+
+    /**
+     * Returns the {@code color} discs that are adjacent to at least one
+     * unoccupied square, as a mask.
+     *
+     * @param color the color
+     * @return the frontier discs
+     */
+    public long getFrontier(Color color) {
+        return getDiscs(color) & Bitboards.neighbors(~occupied());
+    }
+
+    /**
+     * Returns the number of {@code color} discs that are adjacent to at least
+     * one unoccupied square.
+     *
+     * @param color the color
+     * @return the number of frontier discs
+     */
+    public int countFrontier(Color color) {
+        return Long.bitCount(getFrontier(color));
     }
 
     /**
@@ -226,7 +507,7 @@ public class Board {
     @Override
     public String toString() {
         final StringBuffer sb = new StringBuffer("Board{");
-        sb.append("occupied=").append(occupied);
+        sb.append("occupied=").append(getOccupied());
         sb.append('}');
         return sb.toString();
     }
@@ -236,37 +517,102 @@ public class Board {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Board board = (Board) o;
+        return key == board.key &&
+                       black == board.black &&
+                       white == board.white &&
+                       toMove == board.toMove;
+    }
 
-        ZippingIterator<Square> iter = IteratorUtils.zippingIterator(
-                iterator(), board.iterator());
+    @Override
+    public int hashCode() {
+        return Long.hashCode(key);
+    }
 
-        while (iter.hasNext()) {
-            if (iter.next().getColor() != iter.next().getColor()) {
+    /**
+     * A move that has been played on a board: the square that was played and
+     * the discs that it flipped.
+     */
+    public static class Move {
+
+        public final int index;
+        public final long flipped;
+        public final Color color;
+
+        final Color toMove;                         // side to move before this move was played
+
+        Move(int index, long flipped, Color color, Color toMove) {
+            this.index = index;
+            this.flipped = flipped;
+            this.color = color;
+            this.toMove = toMove;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuffer sb = new StringBuffer("Move{");
+            sb.append("index=").append(index);
+            sb.append(", flipped=").append(Long.toHexString(flipped));
+            sb.append(", color=").append(color);
+            sb.append('}');
+            return sb.toString();
+        }
+    }
+
+    /**
+     * A read-only view of the squares whose bits are set in a mask that is
+     * recomputed from the board on every access.
+     */
+    private class SquareSet extends AbstractSet<Square> {
+
+        final LongSupplier mask;
+
+        SquareSet(LongSupplier mask) {
+            this.mask = mask;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Square)) {
                 return false;
             }
+            return (mask.getAsLong() & ((Square) o).bit) != 0;
         }
-        return true;
-    }
 
-    @Override
-    public int hashCode() {
-        Iterator<Square> iter = iterator();
-        int result = 1;
+        @Override
+        public int size() {
+            return Long.bitCount(mask.getAsLong());
+        }
 
-        Color color;
-        while (iter.hasNext()) {
-            color = iter.next().getColor();
-            result = 31 * result + (color == null ? 0 : Objects.hashCode(color));
+        @Override
+        public Iterator<Square> iterator() {
+            return new Iterator<Square>() {
+
+                long remaining = mask.getAsLong();
+
+                @Override
+                public boolean hasNext() {
+                    return remaining != 0;
+                }
+
+                @Override
+                public Square next() {
+                    if (remaining == 0) {
+                        throw new NoSuchElementException();
+                    }
+                    int index = Long.numberOfTrailingZeros(remaining);
+                    remaining &= remaining - 1;
+                    return getSquare(index);
+                }
+            };
         }
-        return result;
     }
 
     public class Square {
 
         public final int RANK, FILE;
-        Color color;
+        final int index;
+        final long bit;
 
-        Square nw, n, ne, e, se, s, sw, w;
         Set<Square> neighbors;
 
         /**
@@ -278,11 +624,12 @@ public class Board {
         private Square(int rank, int file) {
             this.RANK = rank;
             this.FILE = file;
-            this.color = null;
+            this.index = rank * SIZE + file;
+            this.bit = 1L << index;
         }
 
         void setColor(Color color) {
-            this.color = color;
+            Board.this.setColor(index, color);
         }
 
         /**
@@ -291,11 +638,11 @@ public class Board {
          * @return the square's color
          */
         public Color getColor() {
-            return color;
+            return Board.this.getColor(index);
         }
 
         void flip() {
-            setColor(color.opposite());
+            setColor(getColor().opposite());
         }
 
         /**
@@ -304,7 +651,7 @@ public class Board {
          * @return {@code true} iff this square is occupied
          */
         public boolean isUnoccupied() {
-            return Objects.isNull(color);
+            return Board.this.isUnoccupied(index);
         }
 
         /**
@@ -329,92 +676,36 @@ public class Board {
          * @return {@code true} iff this square is a legal play for {@code color}
          */
         public boolean isLegalMove(Color color) {
-            return isUnoccupied() && EnumSet.allOf(Direction.class).stream()
-                                            .anyMatch(direction -> willFlipLine(color, direction));
-
+            return getFlips(index, color) != 0;
         }
 
         /**
-         * Returns {@code true} if {@code color} playing on this square will flips discs in {@code direction}
+         * Returns the square adjacent to this one in {@code direction}.
          *
-         * @param color
-         * @param direction
-         * @return true iff {@code color} playing on this square will flip {@code color.opposite()}
-         *  discs in the given direction
+         * @param direction the direction
+         * @return the neighboring square, or {@code null} at the edge of the board
          */
-        boolean willFlipLine(Color color, Direction direction) {
-            Square neighbor = direction.go(this);
-            if (neighbor == null || neighbor.isUnoccupied() || neighbor.getColor() == color) {
-                return false;
-            }
-
-            DirectionalIterator iter = BoardUtils.directionalIterator(neighbor, direction);
-            while (iter.hasNext()) {
-                neighbor = iter.next();
-                if (neighbor.isUnoccupied()) {
-                    return false;
-                }
-                if (neighbor.getColor() == color) {
-                    return true;
-                }
-            }
-            return false;
+        public Square neighbor(Direction direction) {
+            int neighbor = BoardUtils.step(index, direction);
+            return neighbor < 0 ? null : getSquare(neighbor);
         }
 
-        Square getNW() {
-            if (nw == null) {
-                nw = (RANK - 1 >= 0 && FILE - 1 >= 0 ? squares[RANK - 1][FILE - 1] : null);
-            }
-            return nw;
-        }
-
-        Square getN() {
-            if (n == null) {
-                n = (RANK - 1 >= 0 ? squares[RANK - 1][FILE] : null);
-            }
-            return n;
-        }
-
-        Square getNE() {
-            if (ne == null) {
-                ne = (RANK - 1 >= 0 && FILE + 1 < SIZE ? squares[RANK - 1][FILE + 1] : null);
-            }
-            return ne;
-        }
-
-        Square getE() {
-            if (e == null) {
-                e = (FILE + 1 < SIZE ? squares[RANK][FILE + 1] : null);
-            }
-            return e;
-        }
-
-        Square getSE() {
-            if (se == null) {
-                se = (RANK + 1 < SIZE && FILE + 1 < SIZE ? squares[RANK + 1][FILE + 1] : null);
-            }
-            return se;
-        }
-
-        Square getS() {
-            if (s == null) {
-                s = (RANK + 1 < SIZE ? squares[RANK + 1][FILE] : null);
-            }
-            return s;
-        }
-
-        Square getSW() {
-            if (sw == null) {
-                sw = (RANK + 1 < SIZE && FILE - 1 >= 0 ? squares[RANK + 1][FILE - 1] : null);
-            }
-            return sw;
+        /**
+         * Returns this square's index, which is {@code RANK * SIZE + FILE}.
+         *
+         * @return the index
+         */
+        public int getIndex() {
+            return index;
         }
 
-        Square getW() {
-            if (w == null) {
-                w = (FILE - 1 >= 0 ? squares[RANK][FILE - 1] : null);
-            }
-            return w;
+        /**
+         * Returns the board this square belongs to.
+         *
+         * @return the board
+         */
+        public Board getBoard() {
+            return Board.this;
         }
 
         /**
@@ -423,6 +714,7 @@ public class Board {
          * @return a representation of this square
          */
         public String pretty() {
+            Color color = getColor();
             if (color == Color.WHITE) {
                 return "\u25cb";
             }
@@ -448,7 +740,7 @@ public class Board {
             final StringBuffer sb = new StringBuffer("Square{");
             sb.append("RANK=").append(RANK);
             sb.append(", FILE=").append(FILE);
-            sb.append(", color=").append(color);
+            sb.append(", color=").append(getColor());
             sb.append('}');
             return sb.toString();
         }
@@ -0,0 +1,161 @@
+package info.jayharris.othello;
+
+import info.jayharris.othello.Othello.Color;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * An immutable position: the discs of each color and the side to move. Unlike
+ * {@link Board}, snapshots can be shared between threads without copying.
+ * Playing a move returns a new snapshot.
+ */
+public final class BoardSnapshot {
+
+    private final long black, white;
+    private final Color toMove;
+    private final long key;
+
+    BoardSnapshot(long black, long white, Color toMove, long key) {
+        this.black = black;
+        this.white = white;
+        this.toMove = toMove;
+        this.key = key;
+    }
+
+    /**
+     * Creates a snapshot of the given position.
+     *
+     * @param black the black discs
+     * @param white the white discs
+     * @param toMove the side to move
+     * @return the snapshot
+     */
+    public static BoardSnapshot of(long black, long white, Color toMove) {
+        Validate.isTrue((black & white) == 0, "squares can't hold both colors");
+        return new BoardSnapshot(black, white, toMove, Zobrist.key(black, white, toMove));
+    }
+
+    /**
+     * Returns the snapshot after the side to move plays on the square with the
+     * given index.
+     *
+     * @param index the square index
+     * @return the new snapshot
+     * @throws IllegalArgumentException if this is not a legal move
+     */
+    public BoardSnapshot play(int index) {
+        long own = getDiscs(toMove), opp = getDiscs(toMove.opposite());
+        long flipped = ((own | opp) & (1L << index)) == 0 ? Bitboards.flips(index, own, opp) : 0L;
+        Validate.isTrue(flipped != 0);
+
+        own |= flipped | (1L << index);
+        opp &= ~flipped;
+
+        long next = key ^ Zobrist.disc(toMove, index) ^ Zobrist.flips(flipped) ^ Zobrist.WHITE_TO_MOVE;
+        return toMove == Color.BLACK ?
+                new BoardSnapshot(own, opp, Color.WHITE, next) :
+                new BoardSnapshot(opp, own, Color.BLACK, next);
+    }
+
+    /**
+     * Returns the snapshot after the side to move plays on the given square.
+     *
+     * @param square the square
+     * @return the new snapshot
+     * @throws IllegalArgumentException if this is not a legal move
+     */
+    public BoardSnapshot play(Board.Square square) {
+        return play(square.getIndex());
+    }
+
+    /**
+     * Returns the snapshot after the side to move passes.
+     *
+     * @return the new snapshot
+     */
+    public BoardSnapshot pass() {
+        return new BoardSnapshot(black, white, toMove.opposite(), key ^ Zobrist.WHITE_TO_MOVE);
+    }
+
+    /**
+     * Returns the legal moves for the side to move, one bit per square.
+     *
+     * @return the legal moves
+     */
+    public long legalMoves() {
+        return legalMoves(toMove);
+    }
+
+    /**
+     * Returns the legal moves for {@code color}, one bit per square.
+     *
+     * @param color the color
+     * @return the legal moves
+     */
+    public long legalMoves(Color color) {
+        return Bitboards.legalMoves(getDiscs(color), getDiscs(color.opposite()));
+    }
+
+    /**
+     * Returns {@code true} if neither side has a legal move.
+     *
+     * @return {@code true} iff the game is over
+     */
+    public boolean isGameOver() {
+        return Bitboards.legalMoves(black, white) == 0 && Bitboards.legalMoves(white, black) == 0;
+    }
+
+    /**
+     * Creates a mutable board with this position.
+     *
+     * @return the board
+     */
+    public Board toBoard() {
+        return Board.of(black, white, toMove);
+    }
+
+    public long getDiscs(Color color) {
+        return color == Color.BLACK ? black : white;
+    }
+
+    public Color getSideToMove() {
+        return toMove;
+    }
+
+    public long getZobristKey() {
+        return key;
+    }
+
+    public long count(Color color) {
+        return Long.bitCount(getDiscs(color));
+    }
+
+    public int countEmpty() {
+        return Board.SIZE * Board.SIZE - Long.bitCount(black | white);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuffer sb = new StringBuffer("BoardSnapshot{");
+        sb.append("black=").append(Long.toHexString(black));
+        sb.append(", white=").append(Long.toHexString(white));
+        sb.append(", toMove=").append(toMove);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BoardSnapshot that = (BoardSnapshot) o;
+        return key == that.key &&
+                       black == that.black &&
+                       white == that.white &&
+                       toMove == that.toMove;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(key);
+    }
+}
@@ -2,34 +2,150 @@ package info.jayharris.othello;
 
 import info.jayharris.othello.Board.Square;
 
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.Objects;
-import java.util.function.Function;
+import java.util.NoSuchElementException;
 
 public class BoardUtils {
 
+    private static final int SQUARES = Board.SIZE * Board.SIZE;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * {@code RAYS[square][direction]} holds the indexes of the squares from
+     * {@code square} (exclusive) to the edge of the board in {@code direction}.
+     */
+    private static final int[][][] RAYS = new int[SQUARES][DIRECTIONS.length][];
+
+    /**
+     * {@code RAY_MASKS[direction][square]} holds the same squares as
+     * {@code RAYS[square][direction]}, as a mask.
+     */
+    private static final long[][] RAY_MASKS = new long[DIRECTIONS.length][SQUARES];
+
+    /**
+     * {@code LINE_MASKS[square]} holds every square on the row, column and both
+     * diagonals through {@code square}, excluding {@code square} itself.
+     */
+    private static final long[] LINE_MASKS = new long[SQUARES];
+
+    static {
+        for (int square = 0; square < SQUARES; ++square) {
+            for (Direction direction : DIRECTIONS) {
+                int rank = square / Board.SIZE + direction.dRank;
+                int file = square % Board.SIZE + direction.dFile;
+                int length = 0;
+                int[] ray = new int[Board.SIZE - 1];
+
+                while (rank >= 0 && rank < Board.SIZE && file >= 0 && file < Board.SIZE) {
+                    ray[length++] = rank * Board.SIZE + file;
+                    RAY_MASKS[direction.ordinal()][square] |= 1L << (rank * Board.SIZE + file);
+                    rank += direction.dRank;
+                    file += direction.dFile;
+                }
+
+                RAYS[square][direction.ordinal()] = Arrays.copyOf(ray, length);
+                LINE_MASKS[square] |= RAY_MASKS[direction.ordinal()][square];
+            }
+        }
+    }
+
+    /**
+     * Returns the indexes of the squares from {@code square} (exclusive) to the
+     * edge of the board in {@code direction}, nearest first. The array is shared
+     * and must not be modified.
+     *
+     * @param square the index of the starting square
+     * @param direction the direction
+     * @return the squares on the ray
+     */
+    public static int[] ray(int square, Direction direction) {
+        return RAYS[square][direction.ordinal()];
+    }
+
+    /**
+     * Returns the squares from {@code square} (exclusive) to the edge of the
+     * board in {@code direction}, as a mask.
+     *
+     * @param square the index of the starting square
+     * @param direction the direction
+     * @return the squares on the ray
+     */
+    public static long rayMask(int square, Direction direction) {
+        return RAY_MASKS[direction.ordinal()][square];
+    }
+
+    /**
+     * Returns every square in any of the eight directions from {@code square}
+     * (exclusive), as a mask.
+     *
+     * @param square the index of the square
+     * @return the squares on lines through {@code square}
+     */
+    public static long lineMask(int square) {
+        return LINE_MASKS[square];
+    }
+
+    /**
+     * Returns the index of the square adjacent to {@code square} in
+     * {@code direction}, or {@code -1} at the edge of the board.
+     *
+     * @param square the index of the starting square
+     * @param direction the direction
+     * @return the index of the neighbor
+     */
+    public static int step(int square, Direction direction) {
+        int[] ray = RAYS[square][direction.ordinal()];
+        return ray.length == 0 ? -1 : ray[0];
+    }
+
+    /**
+     * Walks the ray from {@code square} in {@code direction} and returns the
+     * {@code opp} discs that are bracketed between {@code square} and the
+     * nearest {@code own} disc.
+     *
+     * @param square the index of the starting square
+     * @param direction the direction
+     * @param own the discs of the side to move
+     * @param opp the discs of the opponent
+     * @return the bracketed discs, or zero if the line isn't closed by an {@code own} disc
+     */
+    public static long bracketed(int square, Direction direction, long own, long opp) {
+        int[] ray = RAYS[square][direction.ordinal()];
+        long line = 0L;
+        for (int i = 0; i < ray.length; ++i) {
+            long bit = 1L << ray[i];
+            if ((opp & bit) == 0) {
+                return (own & bit) == 0 ? 0L : line;
+            }
+            line |= bit;
+        }
+        return 0L;
+    }
+
     public static DirectionalIterator directionalIterator(Square start, Direction direction) {
         return new DirectionalIterator(start, direction);
     }
 
     public enum Direction {
-        NW(Square::getNW),
-        N(Square::getN),
-        NE(Square::getNE),
-        E(Square::getE),
-        SE(Square::getSE),
-        S(Square::getS),
-        SW(Square::getSW),
-        W(Square::getW);
-
-        private final Function<Square, Square> fn;
-
-        Direction(Function<Square, Square> fn) {
-            this.fn = fn;
+        NW(-1, -1),
+        N(-1, 0),
+        NE(-1, 1),
+        E(0, 1),
+        SE(1, 1),
+        S(1, 0),
+        SW(1, -1),
+        W(0, -1);
+
+        public final int dRank, dFile;
+
+        Direction(int dRank, int dFile) {
+            this.dRank = dRank;
+            this.dFile = dFile;
         }
 
         public Square go(Square from) {
-            return fn.apply(from);
+            return from.neighbor(this);
         }
     }
 
@@ -39,22 +155,27 @@ public class BoardUtils {
      */
     public static class DirectionalIterator implements Iterator<Square> {
 
-        Square current;
-        final Direction direction;
+        final Board board;
+        final int[] ray;
+        int next;
 
         DirectionalIterator(Square start, Direction direction) {
-            this.current = start;
-            this.direction = direction;
+            this.board = start.getBoard();
+            this.ray = ray(start.getIndex(), direction);
+            this.next = 0;
         }
 
         @Override
         public boolean hasNext() {
-            return Objects.nonNull(direction.go(current));
+            return next < ray.length;
         }
 
         @Override
         public Square next() {
-            return this.current = direction.go(current);
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return board.getSquare(ray[next++]);
         }
 
         public boolean hasUnoccupiedSquare() {
@@ -84,7 +205,7 @@ public class BoardUtils {
 
         @Override
         public boolean hasNext() {
-            return rank <= Board.SIZE && file <= Board.SIZE;
+            return rank < Board.SIZE && file < Board.SIZE;
         }
 
         @Override
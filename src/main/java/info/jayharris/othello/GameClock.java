@@ -0,0 +1,109 @@
+package info.jayharris.othello;
+
+import info.jayharris.othello.Othello.Color;
+import org.apache.commons.lang3.Validate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A chess clock: each side has a store of time that runs down while it is
+ * that side's turn, optionally topped up by an increment after every move.
+ *
+ * The clock doesn't end the game when a side runs out; {@link #hasExpired}
+ * reports it, and it is up to whoever runs the game to adjudicate.
+ */
+public class GameClock {
+
+    private final long[] remaining = new long[2];
+    private final long increment;
+
+    private Color running;
+    private long startedAt;
+
+    /**
+     * Constructor for a clock without an increment.
+     *
+     * @param millis each side's time for the whole game
+     */
+    public GameClock(long millis) {
+        this(millis, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param millis each side's time for the whole game
+     * @param incrementMillis the time added to a side's clock after each of
+     *                        its moves
+     */
+    public GameClock(long millis, long incrementMillis) {
+        Validate.isTrue(millis > 0 && incrementMillis >= 0);
+
+        remaining[0] = remaining[1] = TimeUnit.MILLISECONDS.toNanos(millis);
+        this.increment = TimeUnit.MILLISECONDS.toNanos(incrementMillis);
+    }
+
+    /**
+     * Starts {@code color}'s clock.
+     *
+     * @param color the side whose turn it is
+     * @throws IllegalStateException if a clock is already running
+     */
+    public void start(Color color) {
+        Validate.validState(running == null, "%s's clock is running", running);
+
+        running = color;
+        startedAt = System.nanoTime();
+    }
+
+    /**
+     * Stops {@code color}'s clock at the end of its move and adds the
+     * increment.
+     *
+     * @param color the side that moved
+     * @throws IllegalStateException if {@code color}'s clock isn't running
+     */
+    public void stop(Color color) {
+        Validate.validState(running == color, "%s's clock isn't running", color);
+
+        remaining[color.ordinal()] -= System.nanoTime() - startedAt;
+        if (remaining[color.ordinal()] > 0) {
+            remaining[color.ordinal()] += increment;
+        }
+        running = null;
+    }
+
+    /**
+     * Returns the time {@code color} has left, counting the move in progress.
+     *
+     * @param color the side
+     * @return the time left, which is negative if it has run out
+     */
+    public long getRemainingMillis(Color color) {
+        long nanos = remaining[color.ordinal()];
+        if (running == color) {
+            nanos -= System.nanoTime() - startedAt;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    public long getIncrementMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(increment);
+    }
+
+    /**
+     * Returns whether {@code color} has run out of time.
+     *
+     * @param color the side
+     * @return {@code true} if its time has run out
+     */
+    public boolean hasExpired(Color color) {
+        return getRemainingMillis(color) <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %d ms, %s %d ms", Color.BLACK, getRemainingMillis(Color.BLACK),
+                Color.WHITE, getRemainingMillis(Color.WHITE));
+    }
+}
@@ -8,8 +8,6 @@ import info.jayharris.othello.players.TerminalPlayer;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 public class Othello {
 
@@ -23,13 +21,28 @@ public class Othello {
 
     private final Board board;
     private final Player black, white;
+    private final GameClock clock;
     private List<Square> moves = new LinkedList<>();
 
     public Othello(Player black, Player white) {
+        this(black, white, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param black the black player
+     * @param white the white player
+     * @param clock the game clock, which runs during each player's turn from
+     *              {@link Player#begin} until its move is made, or {@code null}
+     *              for an untimed game
+     */
+    public Othello(Player black, Player white, GameClock clock) {
         this.board = Board.init();
 
         this.black = black;
         this.white = white;
+        this.clock = clock;
     }
 
     public Outcome play() {
@@ -46,16 +59,36 @@ public class Othello {
      * @return the player whose turn it is to move after {@code current} plays
      */
     public Player nextPly(Player current) {
-        current.begin(this);
+        if (clock != null) {
+            clock.start(current.getColor());
+        }
 
         Square move;
+        try {
+            current.begin(this);
+            move = playMove(current);
+        }
+        finally {
+            // stop the clock even if the player throws, so the next turn can start it
+            if (clock != null) {
+                clock.stop(current.getColor());
+            }
+        }
+
+        moves.add(move);
+        current.done(this);
+        return nextPlayer(current);
+    }
+
+    /**
+     * Asks {@code current} for moves until it gives a legal one, and plays it.
+     */
+    private Square playMove(Player current) {
         while (true) {
             try {
-                board.setPiece(move = current.getMove(this), current.getColor());
-
-                moves.add(move);
-                current.done(this);
-                return nextPlayer(current);
+                Square move = current.getMove(this);
+                board.setPiece(move, current.getColor());
+                return move;
             }
             catch (IllegalArgumentException e) {
                 current.fail(this, e);
@@ -72,21 +105,29 @@ public class Othello {
             return next;
         }
         if (board.hasMoveFor(current)) {
+            board.pass();
             return current;
         }
         return null;
     }
 
     public Outcome gameOver() {
-        Map<Color, Long> scores = board.getOccupied().stream()
-                .collect(Collectors.groupingBy(Board.Square::getColor, Collectors.counting()));
-        return Outcome.whoWon(scores.getOrDefault(Color.BLACK, 0L), scores.getOrDefault(Color.WHITE, 0L));
+        return Outcome.whoWon(board.count(Color.BLACK), board.count(Color.WHITE));
     }
 
     public Board getBoard() {
         return board;
     }
 
+    /**
+     * Returns the game clock.
+     *
+     * @return the clock, or {@code null} if the game is untimed
+     */
+    public GameClock getClock() {
+        return clock;
+    }
+
     public int getTurnNumber() {
         return moves.size() + 1;
     }
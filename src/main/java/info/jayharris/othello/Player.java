@@ -4,7 +4,6 @@ import info.jayharris.othello.Board.Square;
 import info.jayharris.othello.Othello.*;
 
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public abstract class Player {
 
@@ -21,9 +20,19 @@ public abstract class Player {
     public abstract Board.Square getMove(Othello othello);
 
     public Set<Square> getLegalMoves(Board board) {
-        return board.getPotentialMoves().stream()
-                .filter(it -> it.isLegalMove(color))
-                .collect(Collectors.toSet());
+        return board.getSquares(getLegalMoveMask(board));
+    }
+
+    /**
+     * Returns this player's legal moves as a mask with one bit per square.
+     * Use {@link Bitboards.SquareIterator} or {@link Long#numberOfTrailingZeros(long)}
+     * to walk it without allocating.
+     *
+     * @param board the board
+     * @return the legal moves
+     */
+    public long getLegalMoveMask(Board board) {
+        return board.legalMoves(color);
     }
 
     /**
@@ -0,0 +1,266 @@
+package info.jayharris.othello;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds stable discs: discs that can never be flipped, however the game goes
+ * on. Everything is done on bitboards and allocates nothing.
+ *
+ * A disc can only be flipped along one of the four lines through it, so it is
+ * stable once each line is safe. A line is safe if it is full, if the disc is
+ * at the end of it, or if the disc's neighbor on it is stable and the same
+ * color, since then the disc can't be bracketed along it. Starting from discs
+ * known to be stable, that rule is applied until no more discs are added.
+ *
+ * The starting discs are those on the edges, which can only be flipped by
+ * moves on the same edge. Which of them are stable is looked up in a table
+ * over all 3<sup>8</sup> ways to fill an edge, worked out once by trying every
+ * sequence of moves on each.
+ */
+public class Stability {
+
+    private static final long FILE_A = ~Bitboards.NOT_FILE_A;
+    private static final long FILE_H = ~Bitboards.NOT_FILE_H;
+    private static final long RANK_1 = 0x00000000000000ffL;
+    private static final long RANK_8 = 0xff00000000000000L;
+    private static final long EDGES = FILE_A | FILE_H | RANK_1 | RANK_8;
+
+    /** Every row, column and diagonal, by axis: horizontal, vertical, a1-h8, h1-a8. */
+    private static final long[][] LINES = {
+            lines(0, 1), lines(1, 0), lines(1, 1), lines(1, -1)
+    };
+
+    /**
+     * {@code TERNARY[bits]} reads the 8 bits of {@code bits} as base-3
+     * digits, bit {@code i} being worth {@code 3^i}.
+     */
+    private static final int[] TERNARY = new int[256];
+
+    /**
+     * {@code EDGE_STABLE[index]} holds the stable squares of an edge, bit
+     * {@code i} for position {@code i}, where digit {@code i} of the index is
+     * 0 if position {@code i} is empty and 1 or 2 for a disc of either color.
+     */
+    private static final byte[] EDGE_STABLE = new byte[6561];
+
+    static {
+        for (int bits = 0; bits < 256; ++bits) {
+            for (int i = 7; i >= 0; --i) {
+                TERNARY[bits] = TERNARY[bits] * 3 + (bits >>> i & 1);
+            }
+        }
+
+        int[] memo = new int[EDGE_STABLE.length];
+        Arrays.fill(memo, -1);
+        for (int index = 0; index < EDGE_STABLE.length; ++index) {
+            EDGE_STABLE[index] = (byte) edgeStable(digits(index), memo);
+        }
+    }
+
+    private static long[] lines(int dRank, int dFile) {
+        List<Long> lines = new ArrayList<>();
+        for (int square = 0; square < 64; ++square) {
+            int rank = square / 8, file = square % 8;
+            if (inBounds(rank - dRank, file - dFile)) {
+                continue;                                   // not the start of a line
+            }
+
+            long line = 0L;
+            for (; inBounds(rank, file); rank += dRank, file += dFile) {
+                line |= 1L << (rank * 8 + file);
+            }
+            lines.add(line);
+        }
+        return lines.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static boolean inBounds(int rank, int file) {
+        return rank >= 0 && rank < 8 && file >= 0 && file < 8;
+    }
+
+    private static int[] digits(int index) {
+        int[] digits = new int[8];
+        for (int i = 0; i < 8; ++i, index /= 3) {
+            digits[i] = index % 3;
+        }
+        return digits;
+    }
+
+    private static int index(int[] digits) {
+        int index = 0;
+        for (int i = 7; i >= 0; --i) {
+            index = index * 3 + digits[i];
+        }
+        return index;
+    }
+
+    /**
+     * Works out the stable positions of one edge. A disc is stable if, after
+     * either color plays any empty position, it hasn't been flipped and is
+     * still stable. A move may always be legal because of discs off the edge,
+     * so it is allowed whether or not it flips anything on the edge.
+     */
+    private static int edgeStable(int[] digits, int[] memo) {
+        int index = index(digits);
+        if (memo[index] >= 0) {
+            return memo[index];
+        }
+
+        int stable = 0;
+        for (int i = 0; i < 8; ++i) {
+            if (digits[i] != 0) {
+                stable |= 1 << i;
+            }
+        }
+
+        for (int move = 0; move < 8 && stable != 0; ++move) {
+            if (digits[move] != 0) {
+                continue;
+            }
+            for (int color = 1; color <= 2; ++color) {
+                int[] next = digits.clone();
+                next[move] = color;
+                int flipped = flip(next, move, 1) | flip(next, move, -1);
+                stable &= ~flipped & edgeStable(next, memo);
+            }
+        }
+
+        memo[index] = stable;
+        return stable;
+    }
+
+    /**
+     * Flips the discs bracketed by a move in one direction along the edge.
+     *
+     * @return the positions flipped
+     */
+    private static int flip(int[] digits, int move, int direction) {
+        int color = digits[move], i = move + direction;
+        while (i >= 0 && i < 8 && digits[i] == 3 - color) {
+            i += direction;
+        }
+        if (i < 0 || i >= 8 || digits[i] != color || i == move + direction) {
+            return 0;
+        }
+
+        int flipped = 0;
+        for (int j = move + direction; j != i; j += direction) {
+            digits[j] = color;
+            flipped |= 1 << j;
+        }
+        return flipped;
+    }
+
+    /**
+     * Returns the stable discs of both colors. The colors may be given either
+     * way round.
+     *
+     * @param black the black discs
+     * @param white the white discs
+     * @return the stable discs
+     */
+    public static long stableDiscs(long black, long white) {
+        long occupied = black | white;
+
+        long horizontal = fullLines(LINES[0], occupied) | FILE_A | FILE_H;
+        long vertical = fullLines(LINES[1], occupied) | RANK_1 | RANK_8;
+        long diagonal = fullLines(LINES[2], occupied) | EDGES;
+        long antiDiagonal = fullLines(LINES[3], occupied) | EDGES;
+
+        long stable = edgeStable(black, white) | (occupied & horizontal & vertical & diagonal & antiDiagonal);
+        return spread(black, stable & black, horizontal, vertical, diagonal, antiDiagonal)
+                | spread(white, stable & white, horizontal, vertical, diagonal, antiDiagonal);
+    }
+
+    private static long fullLines(long[] lines, long occupied) {
+        long full = 0L;
+        for (long line : lines) {
+            if ((line & occupied) == line) {
+                full |= line;
+            }
+        }
+        return full;
+    }
+
+    /**
+     * Returns the stable discs on the four edges.
+     */
+    static long edgeStable(long black, long white) {
+        long stable = edge(black, white) | (long) edge(black >>> 56, white >>> 56) << 56;
+
+        long b = Bitboards.flipDiagonal(black), w = Bitboards.flipDiagonal(white);
+        long files = edge(b, w) | (long) edge(b >>> 56, w >>> 56) << 56;
+        return stable | Bitboards.flipDiagonal(files);
+    }
+
+    private static int edge(long black, long white) {
+        return EDGE_STABLE[TERNARY[(int) black & 0xff] + 2 * TERNARY[(int) white & 0xff]] & 0xff;
+    }
+
+    /**
+     * Adds every disc of one color whose four lines are safe, until there
+     * are no more.
+     *
+     * @param discs the color's discs
+     * @param stable the color's discs already known to be stable
+     * @return all of the color's stable discs
+     */
+    private static long spread(long discs, long stable, long horizontal, long vertical,
+                               long diagonal, long antiDiagonal) {
+        while (true) {
+            long next = stable | (discs
+                    & (horizontal | (stable << 1 & Bitboards.NOT_FILE_A) | (stable >>> 1 & Bitboards.NOT_FILE_H))
+                    & (vertical | stable << 8 | stable >>> 8)
+                    & (diagonal | (stable << 9 & Bitboards.NOT_FILE_A) | (stable >>> 9 & Bitboards.NOT_FILE_H))
+                    & (antiDiagonal | (stable << 7 & Bitboards.NOT_FILE_H) | (stable >>> 7 & Bitboards.NOT_FILE_A)));
+            if (next == stable) {
+                return stable;
+            }
+            stable = next;
+        }
+    }
+
+    /**
+     * Returns the discs that can be reached from an occupied corner by
+     * stepping along the two edges away from it, and from those further from
+     * it, through discs of the corner's color. These are usually, but not
+     * always, stable.
+     *
+     * @param black the black discs
+     * @param white the white discs
+     * @return the discs
+     */
+    public static long cornerRegions(long black, long white) {
+        return cornerRegions(black) | cornerRegions(white);
+    }
+
+    private static long cornerRegions(long discs) {
+        long a1 = fill(discs & 1L, discs, 1, 8, Bitboards.NOT_FILE_A);
+        long h1 = fill(discs & 1L << 7, discs, -1, 8, Bitboards.NOT_FILE_H);
+        long a8 = fill(discs & 1L << 56, discs, 1, -8, Bitboards.NOT_FILE_A);
+        long h8 = fill(discs & 1L << 63, discs, -1, -8, Bitboards.NOT_FILE_H);
+        return a1 | h1 | a8 | h8;
+    }
+
+    /**
+     * Floods {@code discs} from {@code region} by shifting along a rank and
+     * along a file; positive shifts are to the left. {@code acrossMask} drops
+     * squares that wrapped around to the other side of the board.
+     */
+    private static long fill(long region, long discs, int across, int down, long acrossMask) {
+        while (region != 0) {
+            long next = region | (discs & ((shift(region, across) & acrossMask) | shift(region, down)));
+            if (next == region) {
+                break;
+            }
+            region = next;
+        }
+        return region;
+    }
+
+    private static long shift(long b, int n) {
+        return n > 0 ? b << n : b >>> -n;
+    }
+}
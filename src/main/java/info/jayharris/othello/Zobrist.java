@@ -0,0 +1,88 @@
+package info.jayharris.othello;
+
+import info.jayharris.othello.Othello.Color;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing. The key of a position is the XOR of the key
+ * of each disc on the board, plus {@link #WHITE_TO_MOVE} if it's white's turn.
+ *
+ * The keys come from a fixed seed so that positions hash the same way in every
+ * run, which lets hashes be stored in files.
+ */
+public class Zobrist {
+
+    private static final long[] BLACK = new long[Board.SIZE * Board.SIZE];
+    private static final long[] WHITE = new long[Board.SIZE * Board.SIZE];
+    private static final long[] FLIP = new long[Board.SIZE * Board.SIZE];
+
+    public static final long WHITE_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x0e110L);
+        for (int i = 0; i < BLACK.length; ++i) {
+            BLACK[i] = random.nextLong();
+            WHITE[i] = random.nextLong();
+            FLIP[i] = BLACK[i] ^ WHITE[i];
+        }
+        WHITE_TO_MOVE = random.nextLong();
+    }
+
+    /**
+     * Returns the key of a {@code color} disc on the given square.
+     *
+     * @param color the color
+     * @param square the square index
+     * @return the key
+     */
+    public static long disc(Color color, int square) {
+        return color == Color.BLACK ? BLACK[square] : WHITE[square];
+    }
+
+    /**
+     * Returns the change in key when the disc on the given square is flipped.
+     *
+     * @param square the square index
+     * @return the key
+     */
+    public static long flip(int square) {
+        return FLIP[square];
+    }
+
+    /**
+     * Returns the change in key when every disc in {@code squares} is flipped.
+     *
+     * @param squares the flipped discs
+     * @return the key
+     */
+    public static long flips(long squares) {
+        long key = 0L;
+        while (squares != 0) {
+            key ^= FLIP[Long.numberOfTrailingZeros(squares)];
+            squares &= squares - 1;
+        }
+        return key;
+    }
+
+    /**
+     * Computes the key of a position from scratch.
+     *
+     * @param black the black discs
+     * @param white the white discs
+     * @param toMove the side to move
+     * @return the key
+     */
+    public static long key(long black, long white, Color toMove) {
+        long key = toMove == Color.WHITE ? WHITE_TO_MOVE : 0L;
+        while (black != 0) {
+            key ^= BLACK[Long.numberOfTrailingZeros(black)];
+            black &= black - 1;
+        }
+        while (white != 0) {
+            key ^= WHITE[Long.numberOfTrailingZeros(white)];
+            white &= white - 1;
+        }
+        return key;
+    }
+}
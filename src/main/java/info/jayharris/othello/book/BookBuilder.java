@@ -0,0 +1,323 @@
+package info.jayharris.othello.book;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardSnapshot;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.search.AlphaBetaSearch;
+import info.jayharris.othello.search.Search;
+import info.jayharris.othello.search.SearchLimits;
+import info.jayharris.othello.search.SearchResult;
+import org.apache.commons.lang3.Validate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Builds an opening book by expanding every line from the starting position
+ * to a fixed number of plies. Each distinct leaf is scored by a search, the
+ * scores are backed up to the root by negamax, and every move of every
+ * interior position is written with its backed-up score.
+ *
+ * Positions are identified by their canonical {@link OpeningBook#canonicalKey
+ * book key}, so transpositions and symmetric lines are expanded and scored
+ * only once. The leaves are searched in parallel, each thread with its own
+ * search. Finished leaves are appended to a checkpoint file as they come in,
+ * and a build given the same checkpoint skips them, so a long build that is
+ * interrupted can pick up where it left off. The checkpoint must have been
+ * written with the same search and limits.
+ *
+ * Scores are the search's, from the side to move's point of view and
+ * clamped below {@link #WIN}; a line that ends the game, in the search or in
+ * the tree, scores {@code WIN} plus the final disc differential, or its
+ * negation.
+ */
+public class BookBuilder {
+
+    /** Any book score greater than this is a won game. */
+    public static final int WIN = 10_000;
+
+    private static final int CHECKPOINT_RECORD_BYTES = Long.BYTES + Integer.BYTES;
+
+    final int depth;
+    final Supplier<Search> searches;
+    final SearchLimits limits;
+    final int threads;
+    final Path checkpoint;
+
+    /** Scores of every leaf and interior position, by book key. */
+    final Map<Long, Integer> scores = new ConcurrentHashMap<>();
+
+    /** Positions in the tree, by book key, one map per ply. */
+    final List<Map<Long, BoardSnapshot>> plies = new ArrayList<>();
+
+    int resumed;
+
+    /**
+     * Constructor.
+     *
+     * @param depth how many plies to expand, not counting passes
+     * @param searches creates the search used by each thread to score leaves
+     * @param limits the limits of each leaf's search
+     * @param threads the number of threads
+     * @param checkpoint the file that finished leaves are appended to, or
+     *                   {@code null} to not keep one
+     */
+    public BookBuilder(int depth, Supplier<Search> searches, SearchLimits limits, int threads, Path checkpoint) {
+        Validate.isTrue(depth > 0 && threads > 0);
+
+        this.depth = depth;
+        this.searches = searches;
+        this.limits = limits;
+        this.threads = threads;
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Builds the book.
+     *
+     * @return the book's records, ready to write
+     * @throws IOException if the checkpoint can't be read or written
+     * @throws InterruptedException if interrupted while waiting for a search
+     */
+    public BookWriter build() throws IOException, InterruptedException {
+        expand();
+        if (checkpoint != null) {
+            resume();
+        }
+        evaluate();
+        return backUp();
+    }
+
+    /**
+     * Lists the distinct positions at each ply, up to {@link #depth}.
+     */
+    void expand() {
+        plies.clear();
+
+        Map<Long, BoardSnapshot> frontier = new HashMap<>();
+        BoardSnapshot root = Board.init().snapshot();
+        frontier.put(OpeningBook.canonicalKey(root), root);
+        plies.add(frontier);
+
+        for (int ply = 0; ply < depth; ++ply) {
+            Map<Long, BoardSnapshot> next = new HashMap<>();
+            for (BoardSnapshot position : frontier.values()) {
+                if (position.isGameOver()) {
+                    continue;
+                }
+                for (long moves = position.legalMoves(); moves != 0; moves &= moves - 1) {
+                    BoardSnapshot child = child(position, Long.numberOfTrailingZeros(moves));
+                    next.putIfAbsent(OpeningBook.canonicalKey(child), child);
+                }
+            }
+            plies.add(next);
+            frontier = next;
+        }
+    }
+
+    /**
+     * Plays a move, then passes if the opponent can't move but the game isn't
+     * over, so that every position in the tree has a move to play.
+     */
+    static BoardSnapshot child(BoardSnapshot position, int move) {
+        BoardSnapshot child = position.play(move);
+        return child.legalMoves() == 0 && !child.isGameOver() ? child.pass() : child;
+    }
+
+    /**
+     * Reads the scores of the leaves finished by an earlier build. A record
+     * cut short by a crash is cut off the file, so that new records can be
+     * appended after it.
+     */
+    void resume() throws IOException {
+        if (!Files.exists(checkpoint)) {
+            return;
+        }
+
+        long records = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpoint)))) {
+            while (true) {
+                long key;
+                int score;
+                try {
+                    key = in.readLong();
+                    score = in.readInt();
+                }
+                catch (EOFException e) {
+                    break;
+                }
+                ++records;
+                if (scores.put(key, score) == null) {
+                    ++resumed;
+                }
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(checkpoint, StandardOpenOption.WRITE)) {
+            channel.truncate(records * CHECKPOINT_RECORD_BYTES);
+        }
+    }
+
+    /**
+     * Scores every leaf that doesn't have a score yet, in parallel.
+     */
+    void evaluate() throws IOException, InterruptedException {
+        Map<Long, BoardSnapshot> leaves = plies.get(depth);
+        List<Long> keys = new ArrayList<>();
+        for (Map<Long, BoardSnapshot> ply : plies) {
+            for (Map.Entry<Long, BoardSnapshot> entry : ply.entrySet()) {
+                if (ply == leaves || entry.getValue().isGameOver()) {
+                    if (!scores.containsKey(entry.getKey())) {
+                        keys.add(entry.getKey());
+                    }
+                }
+            }
+        }
+        Collections.sort(keys);
+
+        Map<Long, BoardSnapshot> positions = new HashMap<>();
+        for (Map<Long, BoardSnapshot> ply : plies) {
+            positions.putAll(ply);
+        }
+
+        DataOutputStream out = checkpoint == null ? null : new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(checkpoint, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        ThreadLocal<Search> search = ThreadLocal.withInitial(searches);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicInteger done = new AtomicInteger();
+
+        try {
+            List<Future<?>> tasks = new ArrayList<>(keys.size());
+            for (Long key : keys) {
+                BoardSnapshot position = positions.get(key);
+                tasks.add(executor.submit(() -> {
+                    int score = evaluate(search.get(), position);
+                    scores.put(key, score);
+                    if (out != null) {
+                        synchronized (out) {
+                            out.writeLong(key);
+                            out.writeInt(score);
+                            if (done.incrementAndGet() % 64 == 0) {
+                                out.flush();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+            if (out != null) {
+                out.close();
+            }
+        }
+    }
+
+    int evaluate(Search search, BoardSnapshot position) {
+        Color color = position.getSideToMove();
+        if (position.isGameOver()) {
+            return outcome(position.count(color) - position.count(color.opposite()));
+        }
+
+        SearchResult result = search.search(position.toBoard(), color, limits);
+        if (Math.abs(result.score) > AlphaBetaSearch.WIN_SCORE) {
+            return outcome(result.score - Long.signum(result.score) * AlphaBetaSearch.WIN_SCORE);
+        }
+        return (int) Math.max(-WIN + 1, Math.min(WIN - 1, result.score));
+    }
+
+    static int outcome(long diff) {
+        return diff > 0 ? WIN + (int) diff : diff < 0 ? -WIN + (int) diff : 0;
+    }
+
+    /**
+     * Backs the leaf scores up to the root, deepest ply first, and records
+     * every move of every interior position.
+     */
+    BookWriter backUp() {
+        BookWriter writer = new BookWriter();
+
+        for (int ply = depth - 1; ply >= 0; --ply) {
+            for (Map.Entry<Long, BoardSnapshot> entry : plies.get(ply).entrySet()) {
+                BoardSnapshot position = entry.getValue();
+                if (position.isGameOver()) {
+                    continue;
+                }
+
+                int best = Integer.MIN_VALUE;
+                for (long moves = position.legalMoves(); moves != 0; moves &= moves - 1) {
+                    int move = Long.numberOfTrailingZeros(moves);
+                    BoardSnapshot child = child(position, move);
+                    int score = scores.get(OpeningBook.canonicalKey(child));
+                    if (child.getSideToMove() != position.getSideToMove()) {
+                        score = -score;
+                    }
+
+                    writer.add(position, move, score, 1);
+                    best = Math.max(best, score);
+                }
+                scores.put(entry.getKey(), best);
+            }
+        }
+        return writer;
+    }
+
+    /**
+     * Returns the backed-up score of the starting position, once the book has
+     * been built.
+     *
+     * @return the score, for black
+     */
+    public int getRootScore() {
+        return scores.get(OpeningBook.canonicalKey(Board.init().snapshot()));
+    }
+
+    /**
+     * Returns the number of distinct positions at a ply.
+     *
+     * @param ply the ply
+     * @return the number of positions
+     */
+    public int countPositions(int ply) {
+        return plies.get(ply).size();
+    }
+
+    /**
+     * Returns how many leaf scores were read from the checkpoint.
+     *
+     * @return the number of leaves
+     */
+    public int getResumed() {
+        return resumed;
+    }
+}
@@ -0,0 +1,141 @@
+package info.jayharris.othello.book;
+
+import info.jayharris.othello.Bitboards;
+import info.jayharris.othello.BoardSnapshot;
+import info.jayharris.othello.Othello.Color;
+import org.apache.commons.lang3.Validate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects book moves in memory and writes them in the {@link OpeningBook}
+ * file format.
+ */
+public class BookWriter {
+
+    private static final int BUFFER_RECORDS = 4096;
+
+    private final Map<Record, Record> records = new HashMap<>();
+
+    /**
+     * Adds a move to the book. If the book already has the move, in this
+     * position or a symmetric one, the counts are added and the new score
+     * replaces the old.
+     *
+     * @param own the discs of the side to move
+     * @param opp the opponent's discs
+     * @param move the move's square index
+     * @param score the move's score for the side to move, clamped to the
+     *              range of a {@code short}
+     * @param count how many times the move has been seen
+     */
+    public void add(long own, long opp, int move, int score, int count) {
+        Validate.isTrue(((own | opp) & (1L << move)) == 0, "square %d is occupied", move);
+        Validate.isTrue(count >= 0);
+
+        int symmetry = OpeningBook.canonicalSymmetry(own, opp);
+        Record record = new Record(OpeningBook.key(Bitboards.transform(own, symmetry), Bitboards.transform(opp, symmetry)),
+                OpeningBook.transformSquare(move, symmetry));
+        record.score = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, score));
+        record.count = count;
+
+        Record existing = records.putIfAbsent(record, record);
+        if (existing != null) {
+            existing.score = record.score;
+            existing.count = (int) Math.min(Integer.MAX_VALUE, (long) existing.count + count);
+        }
+    }
+
+    public void add(BoardSnapshot position, int move, int score, int count) {
+        Color color = position.getSideToMove();
+        add(position.getDiscs(color), position.getDiscs(color.opposite()), move, score, count);
+    }
+
+    /**
+     * Returns the number of records.
+     *
+     * @return the size
+     */
+    public int size() {
+        return records.size();
+    }
+
+    /**
+     * Writes the book, replacing the file if it exists.
+     *
+     * @param path the file
+     * @throws IOException if the file can't be written
+     */
+    public void write(Path path) throws IOException {
+        List<Record> sorted = new ArrayList<>(records.keySet());
+        Collections.sort(sorted);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_RECORDS * OpeningBook.RECORD_BYTES);
+            buffer.putLong(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putInt(sorted.size());
+
+            for (Record record : sorted) {
+                if (!buffer.hasRemaining()) {
+                    drain(channel, buffer);
+                }
+                buffer.putLong(record.key).put((byte) record.move).put((byte) 0)
+                        .putShort(record.score).putInt(record.count);
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static class Record implements Comparable<Record> {
+
+        final long key;
+        final int move;
+        short score;
+        int count;
+
+        Record(long key, int move) {
+            this.key = key;
+            this.move = move;
+        }
+
+        @Override
+        public int compareTo(Record o) {
+            int cmp = Long.compare(key, o.key);
+            return cmp != 0 ? cmp : Integer.compare(move, o.move);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Record)) {
+                return false;
+            }
+            Record record = (Record) o;
+            return key == record.key && move == record.move;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(key) * 31 + move;
+        }
+    }
+}
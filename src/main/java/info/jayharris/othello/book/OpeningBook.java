@@ -0,0 +1,248 @@
+package info.jayharris.othello.book;
+
+import info.jayharris.othello.Bitboards;
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardSnapshot;
+import info.jayharris.othello.Othello.Color;
+import org.apache.commons.lang3.Validate;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An opening book: for each known position, the moves that have been
+ * searched or played from it, with their scores.
+ *
+ * The book is a file of fixed-size records sorted by position key, which is
+ * mapped into memory and binary searched, so opening even a large book reads
+ * nothing onto the heap and a probe allocates nothing. Positions are stored
+ * in a canonical orientation, the least of their eight {@link Bitboards#transform
+ * symmetries}, from the point of view of the side to move; a position and its
+ * rotations and reflections share their records.
+ *
+ * The file is a 16-byte header followed by 16-byte records, all big-endian:
+ * <pre>
+ *   header: magic (8) | version (4) | record count (4)
+ *   record: key (8) | move (1) | unused (1) | score (2) | count (4)
+ * </pre>
+ * A record's move is a square index in the canonical orientation, and its
+ * score is from the point of view of the side to move, in whatever units
+ * the book was evaluated in; higher is better. Records are sorted by key, as
+ * signed numbers, and records with the same key by move.
+ *
+ * @see BookWriter
+ */
+public class OpeningBook {
+
+    public static final long MAGIC = 0x4f5448424f4f4b31L;   // "OTHBOOK1"
+    public static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 16;
+
+    /** What {@link #probe} returns when the book has no move. */
+    public static final int NO_MOVE = -1;
+
+    private final MappedByteBuffer buffer;
+    private final int size;
+
+    private OpeningBook(MappedByteBuffer buffer) {
+        Validate.isTrue(buffer.capacity() >= HEADER_BYTES && buffer.getLong(0) == MAGIC, "not an opening book");
+        Validate.isTrue(buffer.getInt(8) == VERSION, "unsupported book version %d", buffer.getInt(8));
+
+        this.buffer = buffer;
+        this.size = buffer.getInt(12);
+        Validate.isTrue((long) HEADER_BYTES + (long) size * RECORD_BYTES == buffer.capacity(), "book is truncated");
+    }
+
+    /**
+     * Maps a book file into memory. The file stays mapped until the book is
+     * garbage collected, and must not be changed while it is.
+     *
+     * @param path the file
+     * @return the book
+     * @throws IOException if the file can't be read
+     * @throws IllegalArgumentException if the file isn't a book
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Returns the symmetry that takes a position to its canonical orientation:
+     * the one whose transformed discs are least, comparing the side to move's
+     * discs first.
+     *
+     * @param own the discs of the side to move
+     * @param opp the opponent's discs
+     * @return the symmetry
+     */
+    public static int canonicalSymmetry(long own, long opp) {
+        int best = 0;
+        long bestOwn = own, bestOpp = opp;
+        for (int s = 1; s < Bitboards.SYMMETRIES; ++s) {
+            long o = Bitboards.transform(own, s), p = Bitboards.transform(opp, s);
+            int cmp = Long.compareUnsigned(o, bestOwn);
+            if (cmp < 0 || (cmp == 0 && Long.compareUnsigned(p, bestOpp) < 0)) {
+                best = s;
+                bestOwn = o;
+                bestOpp = p;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the book key of a position in any orientation. Symmetric
+     * positions have the same key.
+     *
+     * @param own the discs of the side to move
+     * @param opp the opponent's discs
+     * @return the key
+     */
+    public static long canonicalKey(long own, long opp) {
+        int symmetry = canonicalSymmetry(own, opp);
+        return key(Bitboards.transform(own, symmetry), Bitboards.transform(opp, symmetry));
+    }
+
+    public static long canonicalKey(BoardSnapshot position) {
+        Color color = position.getSideToMove();
+        return canonicalKey(position.getDiscs(color), position.getDiscs(color.opposite()));
+    }
+
+    /**
+     * Returns the book key of a position that is already in its canonical
+     * orientation.
+     *
+     * @param own the discs of the side to move
+     * @param opp the opponent's discs
+     * @return the key
+     */
+    public static long key(long own, long opp) {
+        long h = own * 0x9e3779b97f4a7c15L ^ Long.rotateLeft(opp * 0xc2b2ae3d27d4eb4fL, 31);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Returns the book's best move for the side to move: the one with the
+     * highest score, preferring the one seen most often.
+     *
+     * @param own the discs of the side to move
+     * @param opp the opponent's discs
+     * @return the square index, or {@link #NO_MOVE} if the position isn't in
+     *         the book
+     */
+    public int probe(long own, long opp) {
+        int symmetry = canonicalSymmetry(own, opp);
+        long key = key(Bitboards.transform(own, symmetry), Bitboards.transform(opp, symmetry));
+
+        int bestMove = NO_MOVE, bestScore = Integer.MIN_VALUE, bestCount = 0;
+        for (int i = lowerBound(key); i < size && keyAt(i) == key; ++i) {
+            int offset = HEADER_BYTES + i * RECORD_BYTES;
+            int score = buffer.getShort(offset + 10), count = buffer.getInt(offset + 12);
+            if (score > bestScore || (score == bestScore && count > bestCount)) {
+                bestMove = buffer.get(offset + 8);
+                bestScore = score;
+                bestCount = count;
+            }
+        }
+        return bestMove == NO_MOVE ? NO_MOVE : untransformSquare(bestMove, symmetry);
+    }
+
+    public int probe(BoardSnapshot position) {
+        Color color = position.getSideToMove();
+        return probe(position.getDiscs(color), position.getDiscs(color.opposite()));
+    }
+
+    public int probe(Board board) {
+        Color color = board.getSideToMove();
+        return probe(board.getDiscs(color), board.getDiscs(color.opposite()));
+    }
+
+    /**
+     * Returns every record for a position, with moves in its own orientation.
+     *
+     * @param own the discs of the side to move
+     * @param opp the opponent's discs
+     * @return the entries, possibly none
+     */
+    public List<Entry> lookup(long own, long opp) {
+        int symmetry = canonicalSymmetry(own, opp);
+        long key = key(Bitboards.transform(own, symmetry), Bitboards.transform(opp, symmetry));
+
+        List<Entry> entries = new ArrayList<>();
+        for (int i = lowerBound(key); i < size && keyAt(i) == key; ++i) {
+            int offset = HEADER_BYTES + i * RECORD_BYTES;
+            entries.add(new Entry(untransformSquare(buffer.get(offset + 8), symmetry),
+                    buffer.getShort(offset + 10), buffer.getInt(offset + 12)));
+        }
+        return entries;
+    }
+
+    private long keyAt(int i) {
+        return buffer.getLong(HEADER_BYTES + i * RECORD_BYTES);
+    }
+
+    private int lowerBound(long key) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keyAt(mid) < key) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    static int transformSquare(int square, int symmetry) {
+        return Long.numberOfTrailingZeros(Bitboards.transform(1L << square, symmetry));
+    }
+
+    static int untransformSquare(int square, int symmetry) {
+        return Long.numberOfTrailingZeros(Bitboards.untransform(1L << square, symmetry));
+    }
+
+    /**
+     * Returns the number of records.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * One move from a book position.
+     */
+    public static class Entry {
+
+        public final int move;
+        public final int score;
+        public final int count;
+
+        public Entry(int move, int score, int count) {
+            this.move = move;
+            this.score = score;
+            this.count = count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Entry{move=%d, score=%d, count=%d}", move, score, count);
+        }
+    }
+}
@@ -15,7 +15,20 @@ public class EvaporationHeuristic extends HeuristicFunction {
     }
 
     public long apply(Board board) {
-        long count = board.count(color);
+        return value(board.count(color));
+    }
+
+    private static long value(long count) {
         return count == 0 ? Long.MAX_VALUE : count;
     }
+
+    @Override
+    public Evaluator evaluator(Board board) {
+        return new GreedyHeuristic.DiscCounter(this, board) {
+            @Override
+            public long value() {
+                return EvaporationHeuristic.value(count);
+            }
+        };
+    }
 }
@@ -1,7 +1,6 @@
 package info.jayharris.othello.heuristics;
 
 import info.jayharris.othello.Board;
-import info.jayharris.othello.Board.Square;
 import info.jayharris.othello.Othello.Color;
 
 /**
@@ -16,11 +15,6 @@ public class FrontierEvaporationHeuristic extends HeuristicFunction {
 
     @Override
     public long apply(Board board) {
-        long frontierSquares = board.getOccupied().stream()
-                .filter(it -> it.getColor() == color)
-                .filter(it -> it.getNeighbors().stream().anyMatch(Square::isUnoccupied))
-                .count();
-
-        return -frontierSquares;
+        return -board.countFrontier(color);
     }
 }
@@ -1,11 +1,9 @@
 package info.jayharris.othello.heuristics;
 
 import info.jayharris.othello.Board;
-import info.jayharris.othello.Board.Square;
+import info.jayharris.othello.Board.Move;
 import info.jayharris.othello.Othello.Color;
 
-import java.util.Comparator;
-
 public class GreedyHeuristic extends HeuristicFunction {
 
     public GreedyHeuristic(Color color) {
@@ -14,8 +12,45 @@ public class GreedyHeuristic extends HeuristicFunction {
 
     @Override
     public long apply(Board board) {
-        return board.getOccupied().stream()
-                .filter(square -> square.getColor() == color)
-                .count();
+        return board.count(color);
+    }
+
+    @Override
+    public Evaluator evaluator(Board board) {
+        return new DiscCounter(this, board);
+    }
+
+    /**
+     * Keeps count of {@code color}'s discs. A move adds one disc and the
+     * flips if {@code color} played it, and takes away the flips otherwise.
+     */
+    static class DiscCounter extends HeuristicFunction.Evaluator {
+
+        long count;
+
+        DiscCounter(HeuristicFunction heuristic, Board board) {
+            super(heuristic);
+            this.count = board.count(heuristic.color);
+        }
+
+        @Override
+        public void applyDelta(Move move) {
+            count += delta(move);
+        }
+
+        @Override
+        public void revert(Move move) {
+            count -= delta(move);
+        }
+
+        private long delta(Move move) {
+            long flips = Long.bitCount(move.flipped);
+            return move.color == heuristic.color ? flips + 1 : -flips;
+        }
+
+        @Override
+        public long value() {
+            return count;
+        }
     }
 }
@@ -1,6 +1,7 @@
 package info.jayharris.othello.heuristics;
 
 import info.jayharris.othello.Board;
+import info.jayharris.othello.Board.Move;
 import info.jayharris.othello.Board.Square;
 import info.jayharris.othello.Othello.Color;
 
@@ -15,6 +16,8 @@ public abstract class HeuristicFunction {
     public final Color color;
     public final Function<Comparator<Square>, Collector<Square, ?, Optional<Square>>> optimizer;
 
+    private final OptimizingReducers direction;
+
     public HeuristicFunction(Color color) {
         this(color, OptimizingReducers.MAXIMIZE_HEURISTIC_VALUE);
     }
@@ -22,6 +25,7 @@ public abstract class HeuristicFunction {
     public HeuristicFunction(Color color, OptimizingReducers direction) {
         this.color = color;
         this.optimizer = direction.collectorFunction;
+        this.direction = direction;
     }
 
     /**
@@ -32,25 +36,125 @@ public abstract class HeuristicFunction {
      */
     public abstract long apply(Board board);
 
+    /**
+     * Gets the quality of this board from the perspective of {@code color},
+     * oriented so that greater values are always better for {@code color}
+     * regardless of whether this heuristic maximizes or minimizes.
+     *
+     * @param board the board
+     * @return the oriented heuristic score
+     */
+    public long score(Board board) {
+        return orient(apply(board));
+    }
+
+    private long orient(long value) {
+        if (direction == OptimizingReducers.MAXIMIZE_HEURISTIC_VALUE) {
+            return value;
+        }
+        return value == Long.MIN_VALUE ? Long.MAX_VALUE : -value;
+    }
+
+    /**
+     * Starts evaluating a board incrementally, if this heuristic can. The
+     * evaluator takes the board as it is now, and from then on is told of
+     * each move played on it and each move taken back, so that it can keep
+     * the board's value up to date in time proportional to the discs flipped,
+     * rather than work it out from every square at every leaf.
+     *
+     * An evaluator belongs to one board and must not be shared between
+     * threads, though the heuristic may be.
+     *
+     * @param board the board
+     * @return the evaluator, or {@code null} if this heuristic is only ever
+     *         computed from the whole board
+     */
+    public Evaluator evaluator(Board board) {
+        return null;
+    }
+
+    /**
+     * A heuristic's value for one board, kept up to date as moves are played
+     * and taken back. Passing changes nothing that a heuristic depends on.
+     */
+    public abstract static class Evaluator {
+
+        protected final HeuristicFunction heuristic;
+
+        protected Evaluator(HeuristicFunction heuristic) {
+            this.heuristic = heuristic;
+        }
+
+        /**
+         * Updates the value for a move just played on the board.
+         *
+         * @param move the move
+         */
+        public abstract void applyDelta(Move move);
+
+        /**
+         * Updates the value for a move just taken back. Moves are taken back
+         * in the reverse of the order in which they were played.
+         *
+         * @param move the move
+         */
+        public abstract void revert(Move move);
+
+        /**
+         * Returns what {@link HeuristicFunction#apply(Board)} would return for the board as it
+         * is now.
+         *
+         * @return the heuristic value
+         */
+        public abstract long value();
+
+        /**
+         * Returns what {@link HeuristicFunction#score(Board)} would return for the board as it
+         * is now.
+         *
+         * @return the oriented heuristic score
+         */
+        public long score() {
+            return heuristic.orient(value());
+        }
+    }
+
     /**
      * Gets a comparator that compares the heuristic values of two boards and
      * orders smaller values first.
      *
-     * By default, the comparator copies the board, applies the move to the copied
-     * board and applies this to the copy. Subclasses can override this method for
-     * optimizations.
+     * By default, the comparator plays the move on the board, applies this to
+     * the board and then takes the move back, so the board must not be shared
+     * with another thread while comparing. Each move is scored only the first
+     * time it is compared, so the board must not change while the comparator
+     * is in use. Subclasses can override this method for optimizations.
      *
      * @param board the current board
      * @return a comparator that compares potential moves applied to the given board
      */
     public Comparator<Square> comparator(Board board) {
+        long[] scores = new long[Board.SIZE * Board.SIZE];
+        long[] scored = new long[1];
         return Comparator.comparingLong(square -> {
-            Board copy = Board.deepCopy(board);
-            copy.setPiece(copy.getSquare(square), color);
-            return apply(copy);
+            int index = square.getIndex();
+            if ((scored[0] & 1L << index) == 0) {
+                scores[index] = score(board, square);
+                scored[0] |= 1L << index;
+            }
+            return scores[index];
         });
     }
 
+    private long score(Board board, Square square) {
+        Move move = board.play(board.getSquare(square), color);
+        try {
+            return apply(board);
+        }
+        finally {
+            board.undo(move);
+        }
+    }
+
     /**
      * Compare the heuristic values of all possible moves, return the "best" one.
      *
@@ -60,6 +164,35 @@ public abstract class HeuristicFunction {
         return optimizer.apply(comparator(board));
     }
 
+    /**
+     * Compare the heuristic values of the moves in a mask, return the "best" one.
+     * Ties go to the lower square index.
+     *
+     * @param board the current board
+     * @param moves the candidate moves, one bit per square
+     * @return the best move, or {@code null} if {@code moves} is empty
+     */
+    public Square bestMove(Board board, long moves) {
+        if (moves == 0) {
+            return null;
+        }
+
+        // the comparator remembers each move's score, so comparing against
+        // the best so far doesn't score it again
+        Comparator<Square> comparator = comparator(board);
+        boolean maximize = direction == OptimizingReducers.MAXIMIZE_HEURISTIC_VALUE;
+        Square best = board.getSquare(Long.numberOfTrailingZeros(moves));
+
+        for (moves &= moves - 1; moves != 0; moves &= moves - 1) {
+            Square candidate = board.getSquare(Long.numberOfTrailingZeros(moves));
+            int c = comparator.compare(candidate, best);
+            if (maximize ? c > 0 : c < 0) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
     /**
      * Ordering functions —- do we want the move with the maximum heuristic
      * value or the move with the minimum heuristic value?
@@ -15,8 +15,6 @@ public class MobilityHeuristic extends HeuristicFunction {
 
     @Override
     public long apply(Board board) {
-        return board.getPotentialMoves().stream()
-                .filter(it -> it.isLegalMove(color.opposite()))
-                .count();
+        return Long.bitCount(board.legalMoves(color.opposite()));
     }
 }
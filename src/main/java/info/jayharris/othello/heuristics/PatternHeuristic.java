@@ -0,0 +1,512 @@
+package info.jayharris.othello.heuristics;
+
+import info.jayharris.othello.Bitboards;
+import info.jayharris.othello.Board;
+import info.jayharris.othello.Board.Move;
+import info.jayharris.othello.Othello.Color;
+import org.apache.commons.lang3.Validate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A heuristic that scores the board by its patterns: fixed lines and blocks
+ * of squares, such as an edge or the three-by-three block in a corner. Each
+ * rotation and reflection of a pattern is an instance of it, and every
+ * instance looks up the same table of weights, indexed by the contents of
+ * its squares read as a base-3 number: 0 for an empty square, 1 for one of
+ * {@code color}'s discs, 2 for one of the opponent's. Since a pattern is
+ * worth different things at different points in the game, there is one
+ * table per pattern per game stage.
+ *
+ * The indices are read straight from the bitboards. The board is turned
+ * through each of its eight symmetries, and on each the patterns are read a
+ * rank at a time, through a table from bits to base-3 digits, so a call to
+ * {@link #apply} costs a few hundred arithmetic operations and allocates
+ * nothing.
+ *
+ * The weights are normally fitted to games elsewhere and loaded with
+ * {@link Weights#load}. The {@link Weights#defaults default weights} spread
+ * the values of {@link PositionalHeuristic#DEFAULT_VALUES} over the patterns,
+ * so that out of the box this heuristic scores a board four times as high as
+ * {@code PositionalHeuristic} does, give or take rounding.
+ */
+public class PatternHeuristic extends HeuristicFunction {
+
+    /** The number of game stages, by disc count. */
+    public static final int STAGES = 6;
+    public static final int STAGE_DISCS = 10;
+
+    /** How many weight units the default weights give to one positional point. */
+    public static final int DEFAULT_SCALE = 4;
+
+    public enum Pattern {
+        EDGE_2X(square(0, 0), square(0, 1), square(0, 2), square(0, 3), square(0, 4), square(0, 5),
+                square(0, 6), square(0, 7), square(1, 1), square(1, 6)),
+        CORNER_3X3(square(0, 0), square(0, 1), square(0, 2), square(1, 0), square(1, 1), square(1, 2),
+                square(2, 0), square(2, 1), square(2, 2)),
+        CORNER_2X5(square(0, 0), square(0, 1), square(0, 2), square(0, 3), square(0, 4),
+                square(1, 0), square(1, 1), square(1, 2), square(1, 3), square(1, 4)),
+        DIAGONAL_8(diagonal(0, 8)),
+        DIAGONAL_7(diagonal(1, 7)),
+        DIAGONAL_6(diagonal(2, 6)),
+        DIAGONAL_5(diagonal(3, 5)),
+        DIAGONAL_4(diagonal(4, 4)),
+        LINE_2(line(1)),
+        LINE_3(line(2)),
+        LINE_4(line(3));
+
+        /** The squares of the pattern's first instance, most significant digit first. */
+        final int[] squares;
+
+        /** The number of distinct indices. */
+        public final int size;
+
+        Pattern(int... squares) {
+            this.squares = squares;
+            int size = 1;
+            for (int i = 0; i < squares.length; ++i) {
+                size *= 3;
+            }
+            this.size = size;
+        }
+
+        private static int square(int rank, int file) {
+            return rank * 8 + file;
+        }
+
+        private static int[] diagonal(int file, int length) {
+            int[] squares = new int[length];
+            for (int i = 0; i < length; ++i) {
+                squares[i] = square(i, file + i);
+            }
+            return squares;
+        }
+
+        private static int[] line(int rank) {
+            int[] squares = new int[8];
+            for (int i = 0; i < 8; ++i) {
+                squares[i] = square(rank, i);
+            }
+            return squares;
+        }
+
+        public int length() {
+            return squares.length;
+        }
+    }
+
+    private static final Pattern[] PATTERNS = Pattern.values();
+
+    /**
+     * The squares of every instance of every pattern. An instance is the
+     * pattern read on the board after one of its {@link Bitboards#transform
+     * symmetries}, so its squares are the pattern's, transformed back.
+     */
+    static final int[][] INSTANCE_SQUARES;
+
+    /** The pattern of each instance. */
+    static final int[] INSTANCE_PATTERNS;
+
+    /** For each square, the instances it is part of. */
+    static final int[][] SQUARE_INSTANCES = new int[64][];
+
+    /** For each square, the place value of its digit in each of those instances. */
+    static final int[][] SQUARE_POWERS = new int[64][];
+
+    /** For each symmetry, the patterns that have an instance read after it. */
+    static final int[][] SYMMETRY_PATTERNS = new int[Bitboards.SYMMETRIES][];
+
+    /**
+     * {@code TERNARY[n][bits]} reads the low {@code n} bits of {@code bits} as
+     * base-3 digits, lowest bit most significant.
+     */
+    static final int[][] TERNARY = new int[9][];
+
+    static {
+        List<int[]> squares = new ArrayList<>();
+        List<Integer> patterns = new ArrayList<>();
+        List<List<Integer>> symmetryPatterns = new ArrayList<>();
+        for (int s = 0; s < Bitboards.SYMMETRIES; ++s) {
+            symmetryPatterns.add(new ArrayList<>());
+        }
+
+        for (Pattern pattern : PATTERNS) {
+            List<Long> seen = new ArrayList<>();
+            for (int s = 0; s < Bitboards.SYMMETRIES; ++s) {
+                int[] instance = new int[pattern.length()];
+                long mask = 0L;
+                for (int i = 0; i < instance.length; ++i) {
+                    instance[i] = Long.numberOfTrailingZeros(Bitboards.untransform(1L << pattern.squares[i], s));
+                    mask |= 1L << instance[i];
+                }
+                // a pattern that is symmetric itself maps onto its own squares
+                // under some symmetries; only the first reading of them counts
+                if (!seen.contains(mask)) {
+                    seen.add(mask);
+                    squares.add(instance);
+                    patterns.add(pattern.ordinal());
+                    symmetryPatterns.get(s).add(pattern.ordinal());
+                }
+            }
+        }
+
+        INSTANCE_SQUARES = squares.toArray(new int[0][]);
+        INSTANCE_PATTERNS = patterns.stream().mapToInt(Integer::intValue).toArray();
+        for (int s = 0; s < Bitboards.SYMMETRIES; ++s) {
+            SYMMETRY_PATTERNS[s] = symmetryPatterns.get(s).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        for (int square = 0; square < 64; ++square) {
+            List<Integer> instances = new ArrayList<>(), powers = new ArrayList<>();
+            for (int i = 0; i < INSTANCE_SQUARES.length; ++i) {
+                for (int j = 0, power = 1; j < INSTANCE_SQUARES[i].length; ++j, power *= 3) {
+                    if (INSTANCE_SQUARES[i][INSTANCE_SQUARES[i].length - 1 - j] == square) {
+                        instances.add(i);
+                        powers.add(power);
+                    }
+                }
+            }
+            SQUARE_INSTANCES[square] = instances.stream().mapToInt(Integer::intValue).toArray();
+            SQUARE_POWERS[square] = powers.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        for (int n = 0; n <= 8; ++n) {
+            TERNARY[n] = new int[1 << n];
+            for (int bits = 0; bits < 1 << n; ++bits) {
+                for (int i = 0; i < n; ++i) {
+                    TERNARY[n][bits] = TERNARY[n][bits] * 3 + (bits >>> i & 1);
+                }
+            }
+        }
+    }
+
+    /** The diagonals that start on the first rank, by file, towards h8. */
+    private static final long[] DIAGONALS = new long[8];
+
+    static {
+        for (int file = 0; file < 8; ++file) {
+            for (int i = 0; file + i < 8; ++i) {
+                DIAGONALS[file] |= 1L << (i * 8 + file + i);
+            }
+        }
+    }
+
+    private static final Weights DEFAULT_WEIGHTS = Weights.defaults();
+
+    final Weights weights;
+
+    public PatternHeuristic(Color color) {
+        this(color, DEFAULT_WEIGHTS);
+    }
+
+    public PatternHeuristic(Color color, Weights weights) {
+        super(color, OptimizingReducers.MAXIMIZE_HEURISTIC_VALUE);
+        this.weights = weights;
+    }
+
+    @Override
+    public long apply(Board board) {
+        return evaluate(board.getDiscs(color), board.getDiscs(color.opposite()));
+    }
+
+    /**
+     * Sums the weights of every pattern instance.
+     *
+     * @param own this player's discs
+     * @param opp the opponent's discs
+     * @return the score, for this player
+     */
+    public long evaluate(long own, long opp) {
+        short[][] tables = weights.tables[stage(Long.bitCount(own | opp))];
+
+        long score = 0;
+        for (int s = 0; s < Bitboards.SYMMETRIES; ++s) {
+            long o = Bitboards.transform(own, s), p = Bitboards.transform(opp, s);
+            for (int pattern : SYMMETRY_PATTERNS[s]) {
+                score += tables[pattern][index(pattern, o, p)];
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Keeps the index of every instance up to date as moves are played, so
+     * that a move costs a few additions per square it changes, and a value a
+     * lookup per instance.
+     */
+    @Override
+    public Evaluator evaluator(Board board) {
+        return new PatternEvaluator(board);
+    }
+
+    class PatternEvaluator extends Evaluator {
+
+        final int[] indices = new int[INSTANCE_SQUARES.length];
+        int discs;
+
+        PatternEvaluator(Board board) {
+            super(PatternHeuristic.this);
+
+            long own = board.getDiscs(color), opp = board.getDiscs(color.opposite());
+            for (int i = 0; i < indices.length; ++i) {
+                indices[i] = index(INSTANCE_SQUARES[i], own, opp);
+            }
+            discs = Long.bitCount(own | opp);
+        }
+
+        @Override
+        public void applyDelta(Move move) {
+            update(move, 1);
+            ++discs;
+        }
+
+        @Override
+        public void revert(Move move) {
+            update(move, -1);
+            --discs;
+        }
+
+        /**
+         * The played square's digit goes from 0 to the mover's digit, and each
+         * flipped square's from the other digit to the mover's.
+         */
+        private void update(Move move, int sign) {
+            int digit = move.color == color ? 1 : 2;
+            add(move.index, sign * digit);
+            for (long flipped = move.flipped; flipped != 0; flipped &= flipped - 1) {
+                add(Long.numberOfTrailingZeros(flipped), sign * (2 * digit - 3));
+            }
+        }
+
+        private void add(int square, int change) {
+            int[] instances = SQUARE_INSTANCES[square], powers = SQUARE_POWERS[square];
+            for (int i = 0; i < instances.length; ++i) {
+                indices[instances[i]] += change * powers[i];
+            }
+        }
+
+        @Override
+        public long value() {
+            short[][] tables = weights.tables[stage(discs)];
+
+            long score = 0;
+            for (int i = 0; i < indices.length; ++i) {
+                score += tables[INSTANCE_PATTERNS[i]][indices[i]];
+            }
+            return score;
+        }
+    }
+
+    /**
+     * Returns the index of a pattern's first instance. Every pattern lies in
+     * the top four ranks, so its squares are read a rank, or a diagonal
+     * gathered into a rank, at a time.
+     */
+    static int index(int pattern, long own, long opp) {
+        switch (PATTERNS[pattern]) {
+            case EDGE_2X:
+                return (rank(own, opp, 0, 0, 8) * 3 + square(own, opp, 9)) * 3 + square(own, opp, 14);
+            case CORNER_3X3:
+                return (rank(own, opp, 0, 0, 3) * 27 + rank(own, opp, 1, 0, 3)) * 27 + rank(own, opp, 2, 0, 3);
+            case CORNER_2X5:
+                return rank(own, opp, 0, 0, 5) * 243 + rank(own, opp, 1, 0, 5);
+            case DIAGONAL_8:
+                return diagonal(own, opp, 0, 8);
+            case DIAGONAL_7:
+                return diagonal(own, opp, 1, 7);
+            case DIAGONAL_6:
+                return diagonal(own, opp, 2, 6);
+            case DIAGONAL_5:
+                return diagonal(own, opp, 3, 5);
+            case DIAGONAL_4:
+                return diagonal(own, opp, 4, 4);
+            case LINE_2:
+                return rank(own, opp, 1, 0, 8);
+            case LINE_3:
+                return rank(own, opp, 2, 0, 8);
+            case LINE_4:
+                return rank(own, opp, 3, 0, 8);
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
+    private static int square(long own, long opp, int square) {
+        return (int) (own >>> square & 1) + 2 * (int) (opp >>> square & 1);
+    }
+
+    private static int rank(long own, long opp, int rank, int file, int length) {
+        int shift = rank * 8 + file, mask = (1 << length) - 1;
+        return TERNARY[length][(int) (own >>> shift) & mask] + 2 * TERNARY[length][(int) (opp >>> shift) & mask];
+    }
+
+    /**
+     * Reads the diagonal that starts at {@code file} on the first rank and
+     * runs {@code length} squares towards h8. Its squares are in different
+     * files, so multiplying gathers them into the last rank without carries.
+     */
+    private static int diagonal(long own, long opp, int file, int length) {
+        long mask = DIAGONALS[file];
+        int o = (int) ((own & mask) * 0x0101010101010101L >>> 56 + file);
+        int p = (int) ((opp & mask) * 0x0101010101010101L >>> 56 + file);
+        return TERNARY[length][o] + 2 * TERNARY[length][p];
+    }
+
+    /**
+     * Reads a list of squares one at a time, most significant first. This is
+     * what {@link #index(int, long, long)} computes, only slower.
+     */
+    static int index(int[] squares, long own, long opp) {
+        int index = 0;
+        for (int square : squares) {
+            index = index * 3 + square(own, opp, square);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the game stage of a position.
+     *
+     * @param discs the number of discs on the board
+     * @return the stage, from 0 to {@code STAGES - 1}
+     */
+    public static int stage(int discs) {
+        return Math.max(0, Math.min(STAGES - 1, (discs - 4) / STAGE_DISCS));
+    }
+
+    /**
+     * Returns the number of instances of all the patterns together.
+     *
+     * @return the number of instances
+     */
+    public static int countInstances() {
+        return INSTANCE_SQUARES.length;
+    }
+
+    /**
+     * The weight tables: for each stage and pattern, one weight per index.
+     *
+     * They are kept in a binary file, big-endian: a magic number and the
+     * number of stages and of patterns, each an int, then every table as
+     * shorts, stage by stage and pattern by pattern in {@link Pattern} order.
+     */
+    public static class Weights {
+
+        public static final int MAGIC = 0x4f544857;     // "OTHW"
+
+        final short[][][] tables;
+
+        /**
+         * Constructor for weights that are all zero.
+         */
+        public Weights() {
+            tables = new short[STAGES][PATTERNS.length][];
+            for (short[][] stage : tables) {
+                for (Pattern pattern : PATTERNS) {
+                    stage[pattern.ordinal()] = new short[pattern.size];
+                }
+            }
+        }
+
+        /**
+         * Returns weights that add up to the positional heuristic's default
+         * square values, times {@link #DEFAULT_SCALE}, in every stage. Each
+         * square's value is split evenly between the instances it is part of.
+         *
+         * @return the weights
+         */
+        public static Weights defaults() {
+            int[] coverage = new int[64];
+            for (int[] instance : INSTANCE_SQUARES) {
+                for (int square : instance) {
+                    ++coverage[square];
+                }
+            }
+
+            Weights weights = new Weights();
+            for (Pattern pattern : PATTERNS) {
+                short[] table = new short[pattern.size];
+                for (int index = 0; index < pattern.size; ++index) {
+                    double value = 0;
+                    for (int i = pattern.length() - 1, digits = index; i >= 0; --i, digits /= 3) {
+                        int square = pattern.squares[i], digit = digits % 3;
+                        if (digit != 0) {
+                            double v = (double) DEFAULT_SCALE * PositionalHeuristic.DEFAULT_VALUES[square / 8][square % 8]
+                                    / coverage[square];
+                            value += digit == 1 ? v : -v;
+                        }
+                    }
+                    table[index] = (short) Math.rint(value);   // rounds x and -x alike
+                }
+
+                for (short[][] stage : weights.tables) {
+                    stage[pattern.ordinal()] = table.clone();
+                }
+            }
+            return weights;
+        }
+
+        public short get(int stage, Pattern pattern, int index) {
+            return tables[stage][pattern.ordinal()][index];
+        }
+
+        public void set(int stage, Pattern pattern, int index, short weight) {
+            tables[stage][pattern.ordinal()][index] = weight;
+        }
+
+        /**
+         * Writes the weights to a file.
+         *
+         * @param path the file
+         * @throws IOException if the file can't be written
+         */
+        public void save(Path path) throws IOException {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(STAGES);
+                out.writeInt(PATTERNS.length);
+                for (short[][] stage : tables) {
+                    for (short[] table : stage) {
+                        for (short weight : table) {
+                            out.writeShort(weight);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Reads weights written by {@link #save(Path)}.
+         *
+         * @param path the file
+         * @return the weights
+         * @throws IOException if the file can't be read
+         * @throws IllegalArgumentException if the file isn't a weights file
+         *         for these stages and patterns
+         */
+        public static Weights load(Path path) throws IOException {
+            Weights weights = new Weights();
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                Validate.isTrue(in.readInt() == MAGIC, "not a pattern weights file");
+                Validate.isTrue(in.readInt() == STAGES && in.readInt() == PATTERNS.length,
+                        "pattern weights are for different stages or patterns");
+                for (short[][] stage : weights.tables) {
+                    for (short[] table : stage) {
+                        for (int index = 0; index < table.length; ++index) {
+                            table[index] = in.readShort();
+                        }
+                    }
+                }
+            }
+            return weights;
+        }
+    }
+}
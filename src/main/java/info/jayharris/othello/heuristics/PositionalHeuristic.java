@@ -1,11 +1,9 @@
 package info.jayharris.othello.heuristics;
 
 import info.jayharris.othello.Board;
-import info.jayharris.othello.Board.Square;
+import info.jayharris.othello.Board.Move;
 import info.jayharris.othello.Othello.Color;
 
-import java.util.stream.Collectors;
-
 /**
  * A heuristic that is assigned a quality measure for each square on the board.
  * The overall quality of a particular position is the sum of the values of
@@ -16,7 +14,10 @@ public class PositionalHeuristic extends HeuristicFunction {
 
     public final int[][] squareValues;
 
-    static final int[][] DEFAULT_VALUES = {
+    /** {@code squareValues}, by square index. */
+    private final int[] values = new int[64];
+
+    public static final int[][] DEFAULT_VALUES = {
             {99,  -8,  8,  6,  6,  8,  -8, 99},
             {-8, -24, -4, -3, -3, -4, -24, -8},
             { 8,  -4,  7,  4,  4,  7,  -4,  8},
@@ -34,16 +35,53 @@ public class PositionalHeuristic extends HeuristicFunction {
     public PositionalHeuristic(Color color, int[][] squareValues) {
         super(color, OptimizingReducers.MAXIMIZE_HEURISTIC_VALUE);
         this.squareValues = squareValues;
+        for (int square = 0; square < 64; ++square) {
+            values[square] = squareValues[square / 8][square % 8];
+        }
     }
 
     @Override
     public long apply(Board board) {
-        return board.getOccupied().stream()
-                .collect(Collectors.summingLong(square -> getSquareValue(square)));
+        return sum(board.getDiscs(color)) - sum(board.getDiscs(color.opposite()));
+    }
+
+    private long sum(long discs) {
+        long sum = 0;
+        for (; discs != 0; discs &= discs - 1) {
+            sum += values[Long.numberOfTrailingZeros(discs)];
+        }
+        return sum;
+    }
+
+    @Override
+    public Evaluator evaluator(Board board) {
+        return new Evaluator(this) {
+            long value = apply(board);
+
+            @Override
+            public void applyDelta(Move move) {
+                value += delta(move);
+            }
+
+            @Override
+            public void revert(Move move) {
+                value -= delta(move);
+            }
+
+            @Override
+            public long value() {
+                return value;
+            }
+        };
     }
 
-    private long getSquareValue(Square square) {
-        long v = squareValues[square.RANK][square.FILE];
-        return v * (square.getColor() == color ? 1 : -1);
+    /**
+     * Returns how much a move changes the value: the square played is gained,
+     * and each flipped square counts once for losing it and once for gaining
+     * it.
+     */
+    private long delta(Move move) {
+        long delta = values[move.index] + 2 * sum(move.flipped);
+        return move.color == color ? delta : -delta;
     }
 }
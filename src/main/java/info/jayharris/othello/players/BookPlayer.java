@@ -0,0 +1,71 @@
+package info.jayharris.othello.players;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.Board.Square;
+import info.jayharris.othello.Othello;
+import info.jayharris.othello.Player;
+import info.jayharris.othello.book.OpeningBook;
+
+/**
+ * Plays from an opening book while the game is in it, and otherwise lets
+ * another player choose. The other player is told when each turn begins and
+ * ends either way, so that it can keep its own state, such as a pondering
+ * search, up to date.
+ */
+public class BookPlayer extends Player {
+
+    final Player fallback;
+    final OpeningBook book;
+
+    int bookMoves;
+
+    /**
+     * Constructor.
+     *
+     * @param fallback the player that chooses moves the book doesn't know
+     * @param book the opening book
+     */
+    public BookPlayer(Player fallback, OpeningBook book) {
+        super(fallback.getColor());
+        this.fallback = fallback;
+        this.book = book;
+    }
+
+    @Override
+    public void begin(Othello othello) {
+        fallback.begin(othello);
+    }
+
+    @Override
+    public Square getMove(Othello othello) {
+        Board board = othello.getBoard();
+
+        if (board.getSideToMove() == color) {
+            int move = book.probe(board);
+            if (move != OpeningBook.NO_MOVE && (board.legalMoves(color) & (1L << move)) != 0) {
+                ++bookMoves;
+                return board.getSquare(move);
+            }
+        }
+        return fallback.getMove(othello);
+    }
+
+    @Override
+    public void done(Othello othello) {
+        fallback.done(othello);
+    }
+
+    @Override
+    public void fail(Othello othello, Exception exception) {
+        fallback.fail(othello, exception);
+    }
+
+    /**
+     * Returns how many of this player's moves came from the book.
+     *
+     * @return the number of book moves
+     */
+    public int getBookMoves() {
+        return bookMoves;
+    }
+}
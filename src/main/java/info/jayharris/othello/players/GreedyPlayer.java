@@ -1,16 +1,12 @@
 package info.jayharris.othello.players;
 
+import info.jayharris.othello.Board;
 import info.jayharris.othello.Board.Square;
-import info.jayharris.othello.BoardUtils;
-import info.jayharris.othello.BoardUtils.Direction;
-import info.jayharris.othello.BoardUtils.DirectionalIterator;
 import info.jayharris.othello.Othello;
 import info.jayharris.othello.Othello.Color;
 import info.jayharris.othello.Player;
 
 import java.util.Comparator;
-import java.util.EnumSet;
-import java.util.stream.Collectors;
 
 /**
  * A player that uses a greedy heuristic to choose moves. That is, it always chooses
@@ -25,34 +21,10 @@ public class GreedyPlayer extends Player {
 
     @Override
     public Square getMove(Othello othello) {
-        return getLegalMoves(othello.getBoard()).stream()
-                .max(Comparator.comparingInt(it -> discsFlippedByPlaying(it)))
-                .orElseThrow(IllegalStateException::new);
-    }
-
-    private int discsFlippedByPlaying(Square square) {
-        return EnumSet.allOf(Direction.class).stream().collect(
-                Collectors.summingInt(it -> discsFlippedInDirection(square, it)));
-    }
-
-    private int discsFlippedInDirection(Square square, Direction direction) {
-        Square neighbor = direction.go(square);
-        if (neighbor == null || neighbor.isUnoccupied() || neighbor.getColor() == color) {
-            return 0;
-        }
+        Board board = othello.getBoard();
 
-        int count = 1;
-        DirectionalIterator iter = BoardUtils.directionalIterator(neighbor, direction);
-        while (iter.hasNext()) {
-            neighbor = iter.next();
-            if (neighbor.isUnoccupied()) {
-                return 0;
-            }
-            if (neighbor.getColor() == color) {
-                return count;
-            }
-            ++count;
-        }
-        return 0;
+        return getLegalMoves(board).stream()
+                .max(Comparator.comparingInt(it -> Long.bitCount(board.getFlips(it, color))))
+                .orElseThrow(IllegalStateException::new);
     }
 }
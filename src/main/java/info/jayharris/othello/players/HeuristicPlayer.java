@@ -6,23 +6,51 @@ import info.jayharris.othello.Othello;
 import info.jayharris.othello.Othello.Color;
 import info.jayharris.othello.Player;
 import info.jayharris.othello.heuristics.HeuristicFunction;
+import info.jayharris.othello.search.EndgameSolver;
+import info.jayharris.othello.search.SearchLimits;
+import info.jayharris.othello.search.SearchResult;
 
 public class HeuristicPlayer extends Player {
 
     final HeuristicFunction h;
+    final int endgameEmpties;
+    final EndgameSolver solver;
 
     public HeuristicPlayer(Color color, HeuristicFunction h) {
+        this(color, h, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param color the player's color
+     * @param h the heuristic function
+     * @param endgameEmpties the number of empty squares at or below which the
+     *                       player solves the game exactly instead of using
+     *                       {@code h}, or zero to always use {@code h}
+     */
+    public HeuristicPlayer(Color color, HeuristicFunction h, int endgameEmpties) {
         super(color);
         this.h = h;
+        this.endgameEmpties = endgameEmpties;
+        this.solver = endgameEmpties > 0 ? new EndgameSolver() : null;
     }
 
     @Override
     public Square getMove(Othello othello) {
         Board currentBoard = othello.getBoard();
 
-        return getLegalMoves(currentBoard).stream()
-                .filter(it -> it.isLegalMove(color))
-                .collect(h.bestMove(currentBoard))
-                .orElseThrow(IllegalStateException::new);
+        if (currentBoard.countEmpty() <= endgameEmpties) {
+            SearchResult result = solver.search(currentBoard, color, SearchLimits.builder().build());
+            if (result.move != SearchResult.NO_MOVE) {
+                return currentBoard.getSquare(result.move);
+            }
+        }
+
+        Square move = h.bestMove(currentBoard, getLegalMoveMask(currentBoard));
+        if (move == null) {
+            throw new IllegalStateException();
+        }
+        return move;
     }
 }
@@ -0,0 +1,152 @@
+package info.jayharris.othello.players;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.Board.Square;
+import info.jayharris.othello.GameClock;
+import info.jayharris.othello.Othello;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.Player;
+import info.jayharris.othello.search.MonteCarloTreeSearch;
+import info.jayharris.othello.search.Ponderer;
+import info.jayharris.othello.search.RootParallelSearch;
+import info.jayharris.othello.search.Search;
+import info.jayharris.othello.search.SearchLimits;
+import info.jayharris.othello.search.SearchResult;
+import info.jayharris.othello.search.TimeManager;
+
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+
+/**
+ * A player that chooses moves by Monte Carlo tree search, keeping the part of
+ * the tree that is still relevant from one move to the next.
+ */
+public class MonteCarloPlayer extends Player {
+
+    /**
+     * How several threads share the work of a search.
+     */
+    public enum Parallelism {
+        /** The threads grow one shared tree. */
+        TREE,
+        /** Each thread grows its own tree, and the trees' root statistics are added up. */
+        ROOT
+    }
+
+    final Search search;
+    final SearchLimits limits;
+    final PrintStream out;
+
+    SearchResult lastResult;
+    Ponderer ponderer;
+
+    final static String REPORT_TPL = "%s played %s: %d playouts in %d ms (%d playouts/s), score %d";
+
+    public MonteCarloPlayer(Color color, SearchLimits limits) {
+        this(color, new MonteCarloTreeSearch(), limits, null);
+    }
+
+    /**
+     * Constructor for a player that searches with several threads.
+     *
+     * @param color the player's color
+     * @param limits the time or playout budget for each move
+     * @param threads the number of threads
+     * @param parallelism how the threads share the work
+     * @param out where to report each search, or {@code null} to stay quiet
+     */
+    public MonteCarloPlayer(Color color, SearchLimits limits, int threads, Parallelism parallelism, PrintStream out) {
+        this(color, parallelism == Parallelism.ROOT ?
+                new RootParallelSearch(MonteCarloTreeSearch.DEFAULT_CAPACITY / threads,
+                        MonteCarloTreeSearch.DEFAULT_EXPLORATION, new SplittableRandom(), threads) :
+                new MonteCarloTreeSearch(MonteCarloTreeSearch.DEFAULT_CAPACITY,
+                        MonteCarloTreeSearch.DEFAULT_EXPLORATION, new SplittableRandom(), threads),
+                limits, out);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param color the player's color
+     * @param search the search, which may keep its tree from move to move
+     * @param limits the time or playout budget for each move
+     * @param out where to report each search, or {@code null} to stay quiet
+     */
+    public MonteCarloPlayer(Color color, Search search, SearchLimits limits, PrintStream out) {
+        super(color);
+        this.search = search;
+        this.limits = limits;
+        this.out = out;
+    }
+
+    @Override
+    public void begin(Othello othello) {
+        if (ponderer != null) {
+            ponderer.stop(othello.getBoard(), color);
+        }
+    }
+
+    @Override
+    public Square getMove(Othello othello) {
+        Board board = othello.getBoard();
+
+        SearchLimits limits = this.limits;
+        GameClock clock = othello.getClock();
+        if (clock != null) {
+            // there are no iterations to stop between, so use the target time
+            TimeManager timeManager = TimeManager.forMove(clock, color, board.countEmpty());
+            limits = limits.toBuilder().millis(Math.min(limits.millis, timeManager.getTargetMillis())).build();
+        }
+
+        lastResult = search.search(board, color, limits);
+        if (lastResult.move == SearchResult.NO_MOVE) {
+            throw new IllegalStateException();
+        }
+
+        Square move = board.getSquare(lastResult.move);
+        if (out != null) {
+            out.println(String.format(REPORT_TPL, color, move.algebraicNotation(), lastResult.nodes,
+                    lastResult.nanos / 1_000_000, lastResult.nodesPerSecond(), lastResult.score));
+        }
+        return move;
+    }
+
+    @Override
+    public void done(Othello othello) {
+        if (ponderer != null) {
+            ponderer.start(othello.getBoard(), color);
+        }
+    }
+
+    /**
+     * Turns pondering on or off. A pondering player keeps searching, on
+     * the opponent's position, while the opponent thinks.
+     *
+     * @param pondering whether to ponder
+     * @see Ponderer
+     */
+    public void setPondering(boolean pondering) {
+        if (ponderer != null) {
+            ponderer.shutdown();
+        }
+        ponderer = pondering ? new Ponderer(search, limits, false) : null;
+    }
+
+    /**
+     * Returns this player's ponderer.
+     *
+     * @return the ponderer, or {@code null} if the player doesn't ponder
+     */
+    public Ponderer getPonderer() {
+        return ponderer;
+    }
+
+    /**
+     * Returns the result of this player's most recent search.
+     *
+     * @return the result, or {@code null} if this player hasn't moved yet
+     */
+    public SearchResult getLastResult() {
+        return lastResult;
+    }
+}
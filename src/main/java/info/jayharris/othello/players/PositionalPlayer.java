@@ -1,16 +1,13 @@
 package info.jayharris.othello.players;
 
+import info.jayharris.othello.Board;
 import info.jayharris.othello.Board.Square;
-import info.jayharris.othello.BoardUtils;
-import info.jayharris.othello.BoardUtils.Direction;
-import info.jayharris.othello.BoardUtils.DirectionalIterator;
+import info.jayharris.othello.Bitboards;
 import info.jayharris.othello.Othello;
 import info.jayharris.othello.Othello.Color;
 import info.jayharris.othello.Player;
 
 import java.util.Comparator;
-import java.util.EnumSet;
-import java.util.stream.Collectors;
 
 @Deprecated
 public class PositionalPlayer extends Player {
@@ -39,35 +36,25 @@ public class PositionalPlayer extends Player {
 
     @Override
     public Square getMove(Othello othello) {
-        return getLegalMoves(othello.getBoard()).stream()
-                .max(Comparator.comparingInt(it -> valueOfFlippingDiscs(it)))
+        Board board = othello.getBoard();
+
+        return getLegalMoves(board).stream()
+                .max(Comparator.comparingInt(it -> valueOfFlippingDiscs(board, it)))
                 .orElseThrow(IllegalStateException::new);
     }
 
-    private int valueOfFlippingDiscs(Square square) {
-        return EnumSet.allOf(Direction.class).stream()
-                .collect(Collectors.summingInt(it -> valueOfFlippingDiscsInDirection(square, it)));
+    private int valueOfFlippingDiscs(Board board, Square square) {
+        // the discs adjacent to the move don't count towards its value
+        long adjacent = Bitboards.neighbors(Bitboards.bit(square.getIndex()));
+        return valueOfDiscs(board.getFlips(square, color) & ~adjacent);
     }
 
-    private int valueOfFlippingDiscsInDirection(Square square, Direction direction) {
-        Square neighbor = direction.go(square);
-        if (neighbor == null || neighbor.isUnoccupied() || neighbor.getColor() == color) {
-            return 0;
-        }
-
-        int sum = 0;
-        DirectionalIterator iter = BoardUtils.directionalIterator(neighbor, direction);
-        while (iter.hasNext()) {
-            neighbor = iter.next();
-            if (neighbor.isUnoccupied()) {
-                return 0;
-            }
-            if (neighbor.getColor() == color) {
-                return sum;
-            }
-
-            sum += squareValues[neighbor.RANK][neighbor.FILE];
+    private int valueOfDiscs(long discs) {
+        int sum = 0, index;
+        for (; discs != 0; discs &= discs - 1) {
+            index = Long.numberOfTrailingZeros(discs);
+            sum += squareValues[index / Board.SIZE][index % Board.SIZE];
         }
-        return 0;
+        return sum;
     }
 }
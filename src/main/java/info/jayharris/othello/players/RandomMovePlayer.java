@@ -5,9 +5,7 @@ import info.jayharris.othello.Othello;
 import info.jayharris.othello.Othello.Color;
 import info.jayharris.othello.Player;
 
-import java.util.List;
 import java.util.Random;
-import java.util.stream.Collectors;
 
 public class RandomMovePlayer extends Player {
 
@@ -19,13 +17,15 @@ public class RandomMovePlayer extends Player {
 
     @Override
     public Square getMove(Othello othello) {
-        List<Square> moves = getLegalMoves(othello.getBoard()).stream().collect(Collectors.toList());
+        long moves = getLegalMoveMask(othello.getBoard());
 
-        if (moves.isEmpty()) {
+        if (moves == 0) {
             throw new IllegalStateException();
         }
 
-        int i = random.nextInt(moves.size());
-        return moves.listIterator(i).next();
+        for (int i = random.nextInt(Long.bitCount(moves)); i > 0; --i) {
+            moves &= moves - 1;
+        }
+        return othello.getBoard().getSquare(Long.numberOfTrailingZeros(moves));
     }
 }
@@ -0,0 +1,229 @@
+package info.jayharris.othello.players;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.Board.Square;
+import info.jayharris.othello.GameClock;
+import info.jayharris.othello.Othello;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.Player;
+import info.jayharris.othello.heuristics.HeuristicFunction;
+import info.jayharris.othello.search.AlphaBetaSearch;
+import info.jayharris.othello.search.EndgameSolver;
+import info.jayharris.othello.search.ParallelSearch;
+import info.jayharris.othello.search.Ponderer;
+import info.jayharris.othello.search.ProbCut;
+import info.jayharris.othello.search.Search;
+import info.jayharris.othello.search.SearchLimits;
+import info.jayharris.othello.search.SearchResult;
+import info.jayharris.othello.search.TimeManager;
+import info.jayharris.othello.search.TranspositionTable;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A player that looks several plies ahead with an alpha-beta search, using a
+ * heuristic function to score the positions at the end of each line. Once few
+ * enough squares are empty, it solves the game exactly instead.
+ */
+public class SearchPlayer extends Player {
+
+    final Search search;
+    final SearchLimits limits;
+    final PrintStream out;
+    final EndgameSolver solver = new EndgameSolver();
+
+    int endgameEmpties = EndgameSolver.DEFAULT_EMPTIES;
+    SearchResult lastResult;
+    Ponderer ponderer;
+
+    public static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+    final static String REPORT_TPL = "%s played %s: depth %d, score %d, %d nodes in %d ms (%d nodes/s)";
+
+    public SearchPlayer(Color color, HeuristicFunction h, SearchLimits limits) {
+        this(color, h, limits, null);
+    }
+
+    public SearchPlayer(Color color, HeuristicFunction h, SearchLimits limits, PrintStream out) {
+        this(color, h, limits, new TranspositionTable(DEFAULT_TABLE_MEGABYTES), out);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param color the player's color
+     * @param h the heuristic used to score leaves
+     * @param limits when to stop searching each move
+     * @param tt the transposition table, which is kept from move to move
+     * @param out where to report each search, or {@code null} to stay quiet
+     */
+    public SearchPlayer(Color color, HeuristicFunction h, SearchLimits limits, TranspositionTable tt, PrintStream out) {
+        this(color, new AlphaBetaSearch(h, tt), limits, out);
+    }
+
+    /**
+     * Constructor for a player that searches with several threads at once.
+     *
+     * @param color the player's color
+     * @param h the heuristic used to score leaves
+     * @param limits when to stop searching each move
+     * @param threads the number of threads
+     * @param out where to report each search, or {@code null} to stay quiet
+     * @see ParallelSearch
+     */
+    public SearchPlayer(Color color, HeuristicFunction h, SearchLimits limits, int threads, PrintStream out) {
+        this(color, threads == 1 ?
+                new AlphaBetaSearch(h, new TranspositionTable(DEFAULT_TABLE_MEGABYTES)) :
+                new ParallelSearch(h, new TranspositionTable(DEFAULT_TABLE_MEGABYTES), threads),
+                limits, out);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param color the player's color
+     * @param search the search used to choose each move
+     * @param limits when to stop searching each move
+     * @param out where to report each search, or {@code null} to stay quiet
+     */
+    public SearchPlayer(Color color, Search search, SearchLimits limits, PrintStream out) {
+        super(color);
+        this.search = search;
+        this.limits = limits;
+        this.out = out;
+    }
+
+    @Override
+    public void begin(Othello othello) {
+        if (ponderer != null) {
+            ponderer.stop(othello.getBoard(), color);
+        }
+    }
+
+    @Override
+    public Square getMove(Othello othello) {
+        Board board = othello.getBoard();
+
+        SearchLimits moveLimits = limitsFor(othello);
+        long start = System.nanoTime();
+
+        lastResult = null;
+        if (board.countEmpty() <= endgameEmpties) {
+            lastResult = solver.search(board, color, moveLimits);
+        }
+        if (lastResult == null || lastResult.depth == 0) {
+            lastResult = search.search(board, color, remaining(moveLimits, System.nanoTime() - start));
+        }
+        if (lastResult.move == SearchResult.NO_MOVE) {
+            throw new IllegalStateException();
+        }
+
+        Square move = board.getSquare(lastResult.move);
+        if (out != null) {
+            out.println(String.format(REPORT_TPL, color, move.algebraicNotation(), lastResult.depth,
+                    lastResult.score, lastResult.nodes, lastResult.nanos / 1_000_000, lastResult.nodesPerSecond()));
+        }
+        return move;
+    }
+
+    /**
+     * Returns the limits for a search starting now: this player's own, cut
+     * down to what the clock allows in a timed game.
+     */
+    SearchLimits limitsFor(Othello othello) {
+        GameClock clock = othello.getClock();
+        if (clock == null) {
+            return limits;
+        }
+        return TimeManager.forMove(clock, color, othello.getBoard().countEmpty()).apply(limits);
+    }
+
+    /**
+     * Returns what is left of a move's limits after some of its time has been
+     * spent, so that a search that falls back on another doesn't get the
+     * whole budget twice. The time spent is also counted by the limits' time
+     * manager, if any.
+     */
+    static SearchLimits remaining(SearchLimits limits, long elapsedNanos) {
+        if (limits.timeManager != null) {
+            limits.timeManager.spend(elapsedNanos);
+        }
+        if (limits.millis == Long.MAX_VALUE) {
+            return limits;
+        }
+        long millis = Math.max(1, limits.millis - TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        return limits.toBuilder().millis(millis).build();
+    }
+
+    /**
+     * Sets the number of empty squares at or below which this player solves
+     * the game exactly instead of searching with its heuristic. If the solver
+     * runs out of time, the player falls back on the heuristic search.
+     *
+     * @param endgameEmpties the number of empty squares, or zero to never
+     *                       use the solver
+     */
+    public void setEndgameEmpties(int endgameEmpties) {
+        this.endgameEmpties = endgameEmpties;
+    }
+
+    /**
+     * Turns Multi-ProbCut pruning on or off. Only an {@link AlphaBetaSearch}
+     * or a {@link ParallelSearch} can prune.
+     *
+     * @param probCut parameters calibrated for this player's heuristic, or
+     *                {@code null} to never prune
+     * @throws UnsupportedOperationException if this player's search can't prune
+     */
+    public void setProbCut(ProbCut probCut) {
+        if (search instanceof AlphaBetaSearch) {
+            ((AlphaBetaSearch) search).setProbCut(probCut);
+        }
+        else if (search instanceof ParallelSearch) {
+            ((ParallelSearch) search).setProbCut(probCut);
+        }
+        else {
+            throw new UnsupportedOperationException("search can't use ProbCut: " + search.getClass().getSimpleName());
+        }
+    }
+
+    @Override
+    public void done(Othello othello) {
+        if (ponderer != null) {
+            ponderer.start(othello.getBoard(), color);
+        }
+    }
+
+    /**
+     * Turns pondering on or off. A pondering player keeps searching, on
+     * the opponent's likely reply, while the opponent thinks.
+     *
+     * @param pondering whether to ponder
+     * @see Ponderer
+     */
+    public void setPondering(boolean pondering) {
+        if (ponderer != null) {
+            ponderer.shutdown();
+        }
+        ponderer = pondering ? new Ponderer(search, limits, true) : null;
+    }
+
+    /**
+     * Returns this player's ponderer.
+     *
+     * @return the ponderer, or {@code null} if the player doesn't ponder
+     */
+    public Ponderer getPonderer() {
+        return ponderer;
+    }
+
+    /**
+     * Returns the result of this player's most recent search.
+     *
+     * @return the result, or {@code null} if this player hasn't moved yet
+     */
+    public SearchResult getLastResult() {
+        return lastResult;
+    }
+}
@@ -0,0 +1,506 @@
+package info.jayharris.othello.search;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.Board.Move;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.heuristics.HeuristicFunction;
+import info.jayharris.othello.search.TranspositionTable.Bound;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Negamax search with alpha-beta pruning and iterative deepening. Leaves are
+ * scored with a {@link HeuristicFunction}, and positions where neither side
+ * can move are scored by their final disc differential.
+ *
+ * By default the search is a principal variation search: only the first move
+ * at each node is searched with the full window, and the rest with a zero
+ * window that just proves them worse, re-searching any that turn out better.
+ * Each iteration after the first also starts with an aspiration window around
+ * the previous iteration's score, widening it if the score falls outside.
+ * Both can be turned off, which is mostly useful for comparing node counts.
+ *
+ * Given calibrated {@link ProbCut} parameters, the search also prunes
+ * subtrees that shallow searches show are almost certainly irrelevant.
+ *
+ * If the heuristic has an {@link HeuristicFunction#evaluator incremental
+ * evaluator}, the search keeps it up to date as it plays and takes back
+ * moves, rather than scoring each leaf from scratch.
+ *
+ * Scores are always from the perspective of the side to move. A search is not
+ * thread-safe, but {@link #stop()} may be called from another thread.
+ */
+public class AlphaBetaSearch implements Search {
+
+    /**
+     * Any score greater than this is a won game; heuristic scores are clamped
+     * to stay below it.
+     */
+    public static final long WIN_SCORE = 1_000_000_000L;
+    public static final long INFINITY = WIN_SCORE + 2 * Board.SIZE * Board.SIZE;
+
+    /** The default half-width of the aspiration window. */
+    public static final long DEFAULT_ASPIRATION_WINDOW = 32;
+
+    private static final int CHECK_INTERVAL = 1024;
+    private static final long NO_CUT = Long.MIN_VALUE;
+
+    final HeuristicFunction h;
+    final TranspositionTable tt;
+    final MoveOrdering ordering;
+
+    HeuristicFunction.Evaluator evaluator;
+
+    long nodes;
+    long deadline, nodeLimit;
+    boolean aborted;
+    volatile boolean stopRequested;
+
+    boolean principalVariation = true;
+    long aspirationWindow = DEFAULT_ASPIRATION_WINDOW;
+    ProbCut probCut;
+
+    int rootMove;
+    long rootScore;
+
+    public AlphaBetaSearch(HeuristicFunction h) {
+        this(h, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param h the heuristic used to score leaves
+     * @param tt a transposition table, which may be shared with other searches,
+     *           or {@code null} to search without one
+     */
+    public AlphaBetaSearch(HeuristicFunction h, TranspositionTable tt) {
+        this(h, tt, new MoveOrdering());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param h the heuristic used to score leaves
+     * @param tt a transposition table, which may be shared with other searches,
+     *           or {@code null} to search without one
+     * @param ordering decides which moves to search first. It may not be
+     *                 shared with other searches.
+     */
+    public AlphaBetaSearch(HeuristicFunction h, TranspositionTable tt, MoveOrdering ordering) {
+        this.h = h;
+        this.tt = tt;
+        this.ordering = ordering;
+    }
+
+    /**
+     * Searches for the best move for {@code color}. The board is copied, so it
+     * isn't changed and may be read by other threads during the search.
+     *
+     * @param board the board
+     * @param color the side to move
+     * @param limits when to stop
+     * @return the result of the deepest completed iteration
+     */
+    @Override
+    public SearchResult search(Board board, Color color, SearchLimits limits) {
+        newSearch();
+        return search(board, color, limits, 1);
+    }
+
+    @Override
+    public void newSearch() {
+        stopRequested = false;
+        if (tt != null) {
+            tt.newSearch();
+        }
+    }
+
+    @Override
+    public SearchResult resume(Board board, Color color, SearchLimits limits) {
+        return search(board, color, limits, 1);
+    }
+
+    /**
+     * Searches for the best move for {@code color}, starting the iterative
+     * deepening at {@code firstDepth}. Unlike {@link #search(Board, Color, SearchLimits)},
+     * this doesn't clear an earlier request to {@link #stop()}, and doesn't
+     * start a new generation in the transposition table, which is up to
+     * whoever started the search.
+     */
+    SearchResult search(Board board, Color color, SearchLimits limits, int firstDepth) {
+        long start = System.nanoTime();
+
+        Board copy = Board.deepCopy(board);
+        if (copy.getSideToMove() != color) {
+            copy.pass();
+        }
+        evaluator = h.evaluator(copy);
+
+        nodes = 0;
+        aborted = false;
+        nodeLimit = limits.nodes;
+        deadline = limits.millis == Long.MAX_VALUE ?
+                Long.MAX_VALUE : start + TimeUnit.MILLISECONDS.toNanos(limits.millis);
+
+        long moves = copy.legalMoves(color);
+        if (moves == 0) {
+            return new SearchResult(SearchResult.NO_MOVE, evaluate(copy), 0, 0, System.nanoTime() - start);
+        }
+        ordering.newSearch();
+
+        int best = Long.numberOfTrailingZeros(moves), depth = 0;
+        long score = 0;
+
+        for (int d = Math.min(firstDepth, limits.depth); d <= limits.depth; ++d) {
+            if (depth == 0 || aspirationWindow == 0 || Math.abs(score) > WIN_SCORE) {
+                searchRoot(copy, d, moves, best, -INFINITY, INFINITY);
+            }
+            else {
+                searchAspiration(copy, d, moves, best, score);
+            }
+            if (aborted) {
+                break;
+            }
+
+            best = rootMove;
+            score = rootScore;
+            depth = d;
+
+            if (limits.timeManager != null && limits.timeManager.shouldStop(best, score, System.nanoTime() - start)) {
+                break;
+            }
+
+            if (Math.abs(score) > WIN_SCORE || d >= copy.countEmpty()) {
+                break;                              // the game has been searched to the end
+            }
+        }
+
+        return new SearchResult(best, score, depth, nodes, System.nanoTime() - start);
+    }
+
+    @Override
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Returns how well moves were ordered during the most recent search.
+     *
+     * @return the statistics
+     */
+    public MoveOrdering.Statistics getOrderingStatistics() {
+        return ordering.getStatistics();
+    }
+
+    /**
+     * Turns principal variation search on or off. With it off, every move is
+     * searched with the full window.
+     *
+     * @param principalVariation whether to search later moves with a zero window
+     */
+    public void setPrincipalVariation(boolean principalVariation) {
+        this.principalVariation = principalVariation;
+    }
+
+    /**
+     * Sets the half-width of the aspiration window, in the heuristic's units.
+     *
+     * @param aspirationWindow the half-width, or zero to always search the
+     *                         root with the full window
+     */
+    public void setAspirationWindow(long aspirationWindow) {
+        this.aspirationWindow = aspirationWindow;
+    }
+
+    /**
+     * Turns Multi-ProbCut pruning on or off.
+     *
+     * @param probCut parameters calibrated for this search's heuristic, or
+     *                {@code null} to never prune
+     */
+    public void setProbCut(ProbCut probCut) {
+        this.probCut = probCut;
+    }
+
+    /**
+     * Searches the root with a window around {@code guess}, doubling the
+     * window on whichever side the score falls outside it until the score is
+     * inside.
+     */
+    void searchAspiration(Board board, int depth, long moves, int first, long guess) {
+        long delta = aspirationWindow;
+        long alpha = Math.max(-INFINITY, guess - delta), beta = Math.min(INFINITY, guess + delta);
+
+        while (true) {
+            searchRoot(board, depth, moves, first, alpha, beta);
+            if (aborted) {
+                return;
+            }
+
+            delta *= 2;
+            if (rootScore <= alpha) {
+                alpha = delta > WIN_SCORE ? -INFINITY : Math.max(-INFINITY, rootScore - delta);
+            }
+            else if (rootScore >= beta) {
+                first = rootMove;
+                beta = delta > WIN_SCORE ? INFINITY : Math.min(INFINITY, rootScore + delta);
+            }
+            else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Searches the root with the window {@code (alpha, beta)}. If every move
+     * fails low, {@link #rootMove} is left at {@code first}; either way,
+     * {@link #rootScore} is the best score found.
+     */
+    void searchRoot(Board board, int depth, long moves, int first, long alpha, long beta) {
+        Color color = board.getSideToMove();
+        long originalAlpha = alpha;
+
+        rootMove = first;
+        rootScore = -INFINITY;
+
+        int n = ordering.order(moves, first, color, 0);
+        for (int i = 0; i < n; ++i) {
+            int index = ordering.move(0, i);
+            Move move = play(board, index, color);
+            long score = searchChild(board, depth - 1, 1, alpha, beta, i);
+            undo(board, move);
+
+            if (aborted) {
+                return;
+            }
+            if (score > rootScore) {
+                rootScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    rootMove = index;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (tt != null) {
+            Bound bound = rootScore <= originalAlpha ? Bound.UPPER : rootScore >= beta ? Bound.LOWER : Bound.EXACT;
+            tt.store(board.getZobristKey(), depth, bound, rootScore,
+                    bound == Bound.UPPER ? TranspositionTable.NO_MOVE : rootMove);
+        }
+    }
+
+    /**
+     * Searches the position after the {@code i}th move at a node, returning
+     * its score from the point of view of the side that made the move. Under
+     * principal variation search, every move after the first gets a zero
+     * window, and a full re-search only if it beats {@code alpha}.
+     */
+    private long searchChild(Board board, int depth, int ply, long alpha, long beta, int i) {
+        if (i == 0 || !principalVariation || beta - alpha == 1) {
+            return -negamax(board, depth, ply, -beta, -alpha);
+        }
+
+        long score = -negamax(board, depth, ply, -alpha - 1, -alpha);
+        if (score > alpha && score < beta && !aborted) {
+            score = -negamax(board, depth, ply, -beta, -alpha);
+        }
+        return score;
+    }
+
+    long negamax(Board board, int depth, int ply, long alpha, long beta) {
+        if (++nodes >= nodeLimit || (nodes % CHECK_INTERVAL == 0 && isOutOfTime())) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        Color color = board.getSideToMove();
+        long moves = board.legalMoves(color);
+
+        if (moves == 0) {
+            if (board.legalMoves(color.opposite()) == 0) {
+                return terminal(board);
+            }
+
+            board.pass();
+            long score = -negamax(board, depth, ply + 1, -beta, -alpha);
+            board.pass();
+            return score;
+        }
+
+        if (depth == 0) {
+            return evaluateLeaf(board);
+        }
+
+        long key = board.getZobristKey();
+        long originalAlpha = alpha;
+        int hashMove = TranspositionTable.NO_MOVE;
+
+        if (tt != null) {
+            long entry = tt.probe(key);
+            if (entry != 0) {
+                hashMove = TranspositionTable.move(entry);
+                if (TranspositionTable.depth(entry) >= depth) {
+                    long score = TranspositionTable.score(entry);
+                    switch (TranspositionTable.bound(entry)) {
+                        case EXACT:
+                            return score;
+                        case LOWER:
+                            alpha = Math.max(alpha, score);
+                            break;
+                        case UPPER:
+                            beta = Math.min(beta, score);
+                            break;
+                    }
+                    if (alpha >= beta) {
+                        return score;
+                    }
+                }
+            }
+        }
+
+        if (probCut != null && depth >= ProbCut.MIN_DEPTH && -WIN_SCORE < alpha && beta < WIN_SCORE) {
+            long cut = probCut(board, depth, ply, alpha, beta);
+            if (aborted) {
+                return 0;
+            }
+            if (cut != NO_CUT) {
+                return cut;
+            }
+        }
+
+        long best = -INFINITY;
+        int bestMove = TranspositionTable.NO_MOVE;
+
+        int n = ordering.order(moves, hashMove, color, ply);
+        for (int i = 0; i < n; ++i) {
+            int index = ordering.move(ply, i);
+            Move move = play(board, index, color);
+            long score = searchChild(board, depth - 1, ply + 1, alpha, beta, i);
+            undo(board, move);
+
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = index;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        ordering.cutoff(index, color, ply, depth, i);
+                        break;
+                    }
+                }
+            }
+        }
+        if (best < beta) {
+            ordering.noCutoff();
+        }
+
+        if (tt != null) {
+            Bound bound = best <= originalAlpha ? Bound.UPPER : best >= beta ? Bound.LOWER : Bound.EXACT;
+            tt.store(key, depth, bound, best, bound == Bound.UPPER ? TranspositionTable.NO_MOVE : bestMove);
+        }
+        return best;
+    }
+
+    /**
+     * Tries to show with zero-window shallow searches that a search of
+     * {@code depth} would fail high or low.
+     *
+     * @return {@code beta} or {@code alpha} if it probably would, otherwise
+     *         {@code NO_CUT}
+     */
+    private long probCut(Board board, int depth, int ply, long alpha, long beta) {
+        int stage = ProbCut.stage(board.count(Color.BLACK) + board.count(Color.WHITE));
+
+        for (int shallow : ProbCut.shallowDepths(depth)) {
+            if (!probCut.has(stage, depth, shallow)) {
+                continue;
+            }
+
+            long bound = probCut.upperBound(stage, depth, shallow, beta);
+            if (bound < WIN_SCORE && negamax(board, shallow, ply, bound - 1, bound) >= bound && !aborted) {
+                return beta;
+            }
+            bound = probCut.lowerBound(stage, depth, shallow, alpha);
+            if (bound > -WIN_SCORE && negamax(board, shallow, ply, bound, bound + 1) <= bound && !aborted) {
+                return alpha;
+            }
+            if (aborted) {
+                break;
+            }
+        }
+        return NO_CUT;
+    }
+
+    private boolean isOutOfTime() {
+        return stopRequested || System.nanoTime() >= deadline;
+    }
+
+    /**
+     * Scores a position where neither side can move by its disc differential,
+     * offset so that any win outranks any heuristic score.
+     *
+     * @param board the board
+     * @return the score for the side to move
+     */
+    static long terminal(Board board) {
+        Color color = board.getSideToMove();
+        return outcome(board.count(color) - board.count(color.opposite()));
+    }
+
+    /**
+     * Converts a final disc differential to a score, offset so that any win
+     * outranks any heuristic score.
+     *
+     * @param diff the disc differential
+     * @return the score
+     */
+    public static long outcome(long diff) {
+        if (diff > 0) {
+            return WIN_SCORE + diff;
+        }
+        if (diff < 0) {
+            return -WIN_SCORE + diff;
+        }
+        return 0;
+    }
+
+    private Move play(Board board, int index, Color color) {
+        Move move = board.play(index, board.getFlips(index, color), color);
+        if (evaluator != null) {
+            evaluator.applyDelta(move);
+        }
+        return move;
+    }
+
+    private void undo(Board board, Move move) {
+        board.undo(move);
+        if (evaluator != null) {
+            evaluator.revert(move);
+        }
+    }
+
+    /**
+     * Scores a leaf, incrementally if the heuristic can.
+     */
+    private long evaluateLeaf(Board board) {
+        return evaluator != null ? forSideToMove(board, evaluator.score()) : evaluate(board);
+    }
+
+    long evaluate(Board board) {
+        return forSideToMove(board, h.score(board));
+    }
+
+    private long forSideToMove(Board board, long value) {
+        long score = Math.max(-WIN_SCORE + 1, Math.min(WIN_SCORE - 1, value));
+        return board.getSideToMove() == h.color ? score : -score;
+    }
+}
@@ -0,0 +1,426 @@
+package info.jayharris.othello.search;
+
+import info.jayharris.othello.Bitboards;
+import info.jayharris.othello.Board;
+import info.jayharris.othello.Othello.Color;
+
+import java.util.concurrent.TimeUnit;
+
+import static info.jayharris.othello.Bitboards.bit;
+import static info.jayharris.othello.Bitboards.flips;
+
+/**
+ * Searches a position to the end of the game, on raw bitboards, to find its
+ * exact final disc differential or just whether it is won, lost or drawn.
+ *
+ * Moves are tried fastest-first (the move that leaves the opponent the fewest
+ * replies) while many squares are empty, and otherwise in order of parity:
+ * squares in a quadrant with an odd number of empties first, since the side
+ * that moves last in a region usually gains from it. The last four empties are
+ * solved by dedicated routines that don't generate move lists.
+ *
+ * Scores in a {@link SearchResult} use the same scale as
+ * {@link AlphaBetaSearch}; see {@link AlphaBetaSearch#outcome(long)}. Not
+ * thread-safe, but {@link #stop()} may be called from another thread.
+ */
+public class EndgameSolver implements Search {
+
+    public enum Mode {
+        /** Finds the exact final disc differential. */
+        EXACT,
+        /** Only finds whether the game is won, lost or drawn, which is faster. */
+        WIN_LOSS_DRAW
+    }
+
+    /**
+     * The number of empty squares at or below which players switch from
+     * heuristic search to this solver by default.
+     */
+    public static final int DEFAULT_EMPTIES = 14;
+
+    /**
+     * Above this many empties, moves are ordered fastest-first; at or below,
+     * by parity alone.
+     */
+    static final int FASTEST_FIRST_EMPTIES = 7;
+
+    static final int INFINITY = Board.SIZE * Board.SIZE + 1;
+
+    private static final int CHECK_INTERVAL = 4096;
+
+    private static final long[] QUADRANTS = {
+            0x000000000f0f0f0fL, 0x00000000f0f0f0f0L, 0x0f0f0f0f00000000L, 0xf0f0f0f000000000L
+    };
+
+    private static final long[] NEIGHBORS = new long[Board.SIZE * Board.SIZE];
+
+    static {
+        for (int square = 0; square < NEIGHBORS.length; ++square) {
+            NEIGHBORS[square] = Bitboards.neighbors(bit(square));
+        }
+    }
+
+    final Mode mode;
+
+    private final int[][] moveBuffers = new int[Board.SIZE * Board.SIZE][Board.SIZE * Board.SIZE];
+    private final int[][] keyBuffers = new int[Board.SIZE * Board.SIZE][Board.SIZE * Board.SIZE];
+    private final long[][] flipBuffers = new long[Board.SIZE * Board.SIZE][Board.SIZE * Board.SIZE];
+    private final int[] lastSquares = new int[4];
+
+    long nodes, nextCheck;
+    long deadline, nodeLimit;
+    boolean aborted;
+    volatile boolean stopRequested;
+
+    public EndgameSolver() {
+        this(Mode.EXACT);
+    }
+
+    public EndgameSolver(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Solves the position for the side to move, {@code color}. The result's
+     * depth is the number of empty squares, or zero if the limits ran out
+     * before the position was solved; in that case its move is only the best
+     * of those that were solved, if any.
+     *
+     * @param board the board
+     * @param color the side to move
+     * @param limits the time and node budgets. The depth limit is ignored.
+     * @return the result
+     */
+    @Override
+    public SearchResult search(Board board, Color color, SearchLimits limits) {
+        long start = System.nanoTime();
+
+        long own = board.getDiscs(color), opp = board.getDiscs(color.opposite());
+        int empties = board.countEmpty();
+
+        stopRequested = false;
+        begin(start, limits);
+
+        long moves = Bitboards.legalMoves(own, opp);
+        if (moves == 0) {
+            long score = AlphaBetaSearch.outcome(solve(own, opp));
+            return new SearchResult(SearchResult.NO_MOVE, score, aborted ? 0 : empties, nodes, System.nanoTime() - start);
+        }
+
+        int alpha = mode == Mode.EXACT ? -INFINITY : -1, beta = mode == Mode.EXACT ? INFINITY : 1;
+        int best = -INFINITY, bestMove = Long.numberOfTrailingZeros(moves);
+
+        int n = order(own, opp, moves, empties, true);
+        for (int i = 0; i < n; ++i) {
+            int square = moveBuffers[empties][i];
+            long f = flipBuffers[empties][i];
+            int score = -solve(opp & ~f, own | f | bit(square), -beta, -alpha, empties - 1);
+
+            if (aborted) {
+                break;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = square;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        return new SearchResult(bestMove, AlphaBetaSearch.outcome(best), aborted ? 0 : empties,
+                nodes, System.nanoTime() - start);
+    }
+
+    @Override
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Solves the position for the side to move, {@code color}, with no limits.
+     *
+     * @param board the board
+     * @param color the side to move
+     * @return the final disc differential with best play, or in
+     *         {@link Mode#WIN_LOSS_DRAW} mode a value with the same sign
+     */
+    public int solve(Board board, Color color) {
+        stopRequested = false;
+        begin(System.nanoTime(), SearchLimits.builder().build());
+        return solve(board.getDiscs(color), board.getDiscs(color.opposite()));
+    }
+
+    private void begin(long start, SearchLimits limits) {
+        nodes = 0;
+        nextCheck = CHECK_INTERVAL;
+        aborted = false;
+        nodeLimit = limits.nodes;
+        deadline = limits.millis == Long.MAX_VALUE ?
+                Long.MAX_VALUE : start + TimeUnit.MILLISECONDS.toNanos(limits.millis);
+    }
+
+    private int solve(long own, long opp) {
+        int empties = Long.bitCount(~(own | opp));
+        return mode == Mode.EXACT ?
+                solve(own, opp, -INFINITY, INFINITY, empties) :
+                solve(own, opp, -1, 1, empties);
+    }
+
+    int solve(long own, long opp, int alpha, int beta, int empties) {
+        if (empties <= 4) {
+            return solveSmall(own, opp, alpha, beta);
+        }
+
+        if (++nodes >= nextCheck) {
+            nextCheck = nodes + CHECK_INTERVAL;
+            if (nodes >= nodeLimit || stopRequested || System.nanoTime() >= deadline) {
+                aborted = true;
+            }
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        long moves = Bitboards.legalMoves(own, opp);
+        if (moves == 0) {
+            if (Bitboards.legalMoves(opp, own) == 0) {
+                return diff(own, opp);
+            }
+            return -solve(opp, own, -beta, -alpha, empties);
+        }
+
+        int[] squares = moveBuffers[empties];
+        long[] flipped = flipBuffers[empties];
+        int n = order(own, opp, moves, empties, empties > FASTEST_FIRST_EMPTIES);
+        int best = -INFINITY;
+
+        for (int i = 0; i < n; ++i) {
+            int square = squares[i];
+            long f = flipped[i];
+            int score = -solve(opp & ~f, own | f | bit(square), -beta, -alpha, empties - 1);
+
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Sorts the moves into the buffers for {@code empties}, along with the
+     * discs each one flips.
+     *
+     * @return the number of moves
+     */
+    private int order(long own, long opp, long moves, int empties, boolean fastestFirst) {
+        int[] squares = moveBuffers[empties], keys = keyBuffers[empties];
+        long[] flipped = flipBuffers[empties];
+        long odd = oddQuadrants(~(own | opp));
+        int n = 0;
+
+        for (; moves != 0; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            long f = flips(square, own, opp);
+
+            int key = (odd & bit(square)) != 0 ? 0 : 1;
+            if (fastestFirst) {
+                key += Long.bitCount(Bitboards.legalMoves(opp & ~f, own | f | bit(square))) << 1;
+            }
+
+            int i = n++;
+            for (; i > 0 && keys[i - 1] > key; --i) {
+                squares[i] = squares[i - 1];
+                keys[i] = keys[i - 1];
+                flipped[i] = flipped[i - 1];
+            }
+            squares[i] = square;
+            keys[i] = key;
+            flipped[i] = f;
+        }
+        return n;
+    }
+
+    /**
+     * Returns the squares in quadrants with an odd number of empties.
+     */
+    static long oddQuadrants(long empty) {
+        long odd = 0L;
+        for (long quadrant : QUADRANTS) {
+            if ((Long.bitCount(empty & quadrant) & 1) != 0) {
+                odd |= quadrant;
+            }
+        }
+        return odd;
+    }
+
+    static int diff(long own, long opp) {
+        return Long.bitCount(own) - Long.bitCount(opp);
+    }
+
+    /**
+     * Solves a position with at most four empties, trying the ones in odd
+     * quadrants first.
+     */
+    private int solveSmall(long own, long opp, int alpha, int beta) {
+        long empty = ~(own | opp);
+        long odd = oddQuadrants(empty);
+        long first = empty & odd, second = empty & ~odd;
+
+        int[] x = lastSquares;
+        int n = 0;
+        for (; first != 0; first &= first - 1) {
+            x[n++] = Long.numberOfTrailingZeros(first);
+        }
+        for (; second != 0; second &= second - 1) {
+            x[n++] = Long.numberOfTrailingZeros(second);
+        }
+
+        switch (n) {
+            case 4:
+                return solve4(own, opp, alpha, beta, x[0], x[1], x[2], x[3], false);
+            case 3:
+                return solve3(own, opp, alpha, beta, x[0], x[1], x[2], false);
+            case 2:
+                return solve2(own, opp, alpha, beta, x[0], x[1], false);
+            case 1:
+                return solve1(own, opp, x[0]);
+            default:
+                ++nodes;
+                return diff(own, opp);
+        }
+    }
+
+    private int solve4(long own, long opp, int alpha, int beta, int x1, int x2, int x3, int x4, boolean passed) {
+        ++nodes;
+        int best = -INFINITY, score;
+        long f;
+
+        if ((NEIGHBORS[x1] & opp) != 0 && (f = flips(x1, own, opp)) != 0) {
+            best = -solve3(opp & ~f, own | f | bit(x1), -beta, -alpha, x2, x3, x4, false);
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+        }
+        if ((NEIGHBORS[x2] & opp) != 0 && (f = flips(x2, own, opp)) != 0) {
+            score = -solve3(opp & ~f, own | f | bit(x2), -beta, -alpha, x1, x3, x4, false);
+            if (score >= beta) {
+                return score;
+            }
+            if (score > best) {
+                best = score;
+                alpha = Math.max(alpha, best);
+            }
+        }
+        if ((NEIGHBORS[x3] & opp) != 0 && (f = flips(x3, own, opp)) != 0) {
+            score = -solve3(opp & ~f, own | f | bit(x3), -beta, -alpha, x1, x2, x4, false);
+            if (score >= beta) {
+                return score;
+            }
+            if (score > best) {
+                best = score;
+                alpha = Math.max(alpha, best);
+            }
+        }
+        if ((NEIGHBORS[x4] & opp) != 0 && (f = flips(x4, own, opp)) != 0) {
+            score = -solve3(opp & ~f, own | f | bit(x4), -beta, -alpha, x1, x2, x3, false);
+            if (score > best) {
+                best = score;
+            }
+        }
+
+        if (best == -INFINITY) {
+            return passed ? diff(own, opp) : -solve4(opp, own, -beta, -alpha, x1, x2, x3, x4, true);
+        }
+        return best;
+    }
+
+    private int solve3(long own, long opp, int alpha, int beta, int x1, int x2, int x3, boolean passed) {
+        ++nodes;
+        int best = -INFINITY, score;
+        long f;
+
+        if ((NEIGHBORS[x1] & opp) != 0 && (f = flips(x1, own, opp)) != 0) {
+            best = -solve2(opp & ~f, own | f | bit(x1), -beta, -alpha, x2, x3, false);
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+        }
+        if ((NEIGHBORS[x2] & opp) != 0 && (f = flips(x2, own, opp)) != 0) {
+            score = -solve2(opp & ~f, own | f | bit(x2), -beta, -alpha, x1, x3, false);
+            if (score >= beta) {
+                return score;
+            }
+            if (score > best) {
+                best = score;
+                alpha = Math.max(alpha, best);
+            }
+        }
+        if ((NEIGHBORS[x3] & opp) != 0 && (f = flips(x3, own, opp)) != 0) {
+            score = -solve2(opp & ~f, own | f | bit(x3), -beta, -alpha, x1, x2, false);
+            if (score > best) {
+                best = score;
+            }
+        }
+
+        if (best == -INFINITY) {
+            return passed ? diff(own, opp) : -solve3(opp, own, -beta, -alpha, x1, x2, x3, true);
+        }
+        return best;
+    }
+
+    private int solve2(long own, long opp, int alpha, int beta, int x1, int x2, boolean passed) {
+        ++nodes;
+        int best = -INFINITY, score;
+        long f;
+
+        if ((NEIGHBORS[x1] & opp) != 0 && (f = flips(x1, own, opp)) != 0) {
+            best = -solve1(opp & ~f, own | f | bit(x1), x2);
+            if (best >= beta) {
+                return best;
+            }
+        }
+        if ((NEIGHBORS[x2] & opp) != 0 && (f = flips(x2, own, opp)) != 0) {
+            score = -solve1(opp & ~f, own | f | bit(x2), x1);
+            if (score > best) {
+                best = score;
+            }
+        }
+
+        if (best == -INFINITY) {
+            return passed ? diff(own, opp) : -solve2(opp, own, -beta, -alpha, x1, x2, true);
+        }
+        return best;
+    }
+
+    /**
+     * Solves a position with one empty square, which either side may fill.
+     */
+    private int solve1(long own, long opp, int x) {
+        ++nodes;
+        int diff = diff(own, opp);
+        long f;
+
+        if ((NEIGHBORS[x] & opp) != 0 && (f = flips(x, own, opp)) != 0) {
+            return diff + 2 * Long.bitCount(f) + 1;
+        }
+        if ((NEIGHBORS[x] & own) != 0 && (f = flips(x, opp, own)) != 0) {
+            return diff - 2 * Long.bitCount(f) - 1;
+        }
+        return diff;
+    }
+}
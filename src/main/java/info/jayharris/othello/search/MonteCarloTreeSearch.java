@@ -0,0 +1,421 @@
+package info.jayharris.othello.search;
+
+import info.jayharris.othello.Bitboards;
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardSnapshot;
+import info.jayharris.othello.Othello.Color;
+import org.apache.commons.lang3.Validate;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static info.jayharris.othello.Bitboards.bit;
+import static info.jayharris.othello.search.NodePool.PASS;
+
+/**
+ * Monte Carlo tree search with UCT selection. Each playout walks down the tree
+ * by the UCB1 formula, expands the leaf it reaches if the leaf has been
+ * visited before, and finishes the game with uniformly random moves, the same
+ * distribution that {@link info.jayharris.othello.players.RandomMovePlayer}
+ * draws from. Playouts run on raw bitboards and don't allocate.
+ *
+ * With more than one thread, the threads search the same tree ("tree
+ * parallelization"). A thread walking down the tree adds a virtual loss to
+ * each node it passes, which steers the other threads elsewhere until its
+ * playout is backed up.
+ *
+ * The tree is kept between searches. If the next position searched is the
+ * root or is reached from it in one or two moves, the subtree under it is
+ * copied to a fresh {@link NodePool} and the search carries on from there.
+ *
+ * In a {@link SearchResult}, {@code nodes} counts playouts, {@code depth} is
+ * the deepest node visited and {@code score} is the chosen move's mean result
+ * in thousandths: 1000 is a certain win and 0 a certain loss. The depth limit
+ * is ignored. Only one search may run at a time, but {@link #stop()} may be
+ * called from another thread.
+ */
+public class MonteCarloTreeSearch implements Search {
+
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+    public static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+
+    /** The playout budget used when the limits set neither time nor nodes. */
+    public static final long DEFAULT_PLAYOUTS = 10_000;
+
+    /** The number of visits, without wins, added to a node a thread is passing through. */
+    public static final int VIRTUAL_LOSS = 1;
+
+    private static final int MAX_DEPTH = 2 * Board.SIZE * Board.SIZE;
+
+    final double exploration;
+    final int virtualLoss;
+
+    final Worker[] workers;
+    final ForkJoinPool threadPool;
+
+    NodePool pool, spare;
+    int root = -1;
+    BoardSnapshot rootPosition;
+
+    final AtomicLong playouts = new AtomicLong();
+    volatile boolean stopRequested;
+
+    public MonteCarloTreeSearch() {
+        this(DEFAULT_CAPACITY, DEFAULT_EXPLORATION, new SplittableRandom());
+    }
+
+    public MonteCarloTreeSearch(int capacity, double exploration, SplittableRandom random) {
+        this(capacity, exploration, random, 1);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param capacity the most nodes the tree may hold. Two pools of this size
+     *                 are allocated, so that the tree can be compacted.
+     * @param exploration the UCB1 exploration constant
+     * @param random the source of randomness for playouts
+     * @param threads the number of threads that search the tree
+     */
+    public MonteCarloTreeSearch(int capacity, double exploration, SplittableRandom random, int threads) {
+        Validate.isTrue(exploration >= 0);
+        Validate.isTrue(threads > 0, "need at least one thread");
+
+        this.pool = new NodePool(capacity);
+        this.spare = new NodePool(capacity);
+        this.exploration = exploration;
+        this.virtualLoss = threads > 1 ? VIRTUAL_LOSS : 0;
+
+        this.workers = new Worker[threads];
+        workers[0] = new Worker(random);
+        for (int i = 1; i < threads; ++i) {
+            workers[i] = new Worker(random.split());
+        }
+        this.threadPool = threads > 1 ? new ForkJoinPool(threads - 1) : null;
+    }
+
+    @Override
+    public SearchResult search(Board board, Color color, SearchLimits limits) {
+        newSearch();
+        return resume(board, color, limits);
+    }
+
+    @Override
+    public void newSearch() {
+        stopRequested = false;
+    }
+
+    @Override
+    public SearchResult resume(Board board, Color color, SearchLimits limits) {
+        long start = System.nanoTime();
+
+        BoardSnapshot position = board.snapshot();
+        if (position.getSideToMove() != color) {
+            position = position.pass();
+        }
+        if (position.legalMoves() == 0) {
+            return new SearchResult(SearchResult.NO_MOVE, 0, 0, 0, System.nanoTime() - start);
+        }
+        moveRoot(position);
+
+        long playoutLimit = limits.nodes;
+        long deadline = Long.MAX_VALUE;
+        if (limits.millis != Long.MAX_VALUE) {
+            deadline = start + TimeUnit.MILLISECONDS.toNanos(limits.millis);
+        }
+        else if (limits.nodes == Long.MAX_VALUE) {
+            playoutLimit = DEFAULT_PLAYOUTS;
+        }
+
+        long own = position.getDiscs(color), opp = position.getDiscs(color.opposite());
+        playouts.set(0);
+
+        // the calling thread is the first worker; the others run in the pool
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[workers.length];
+        for (int i = 1; i < workers.length; ++i) {
+            Worker worker = workers[i];
+            long limit = playoutLimit, end = deadline;
+            tasks[i] = threadPool.submit(() -> worker.run(own, opp, limit, end));
+        }
+        workers[0].run(own, opp, playoutLimit, deadline);
+
+        int depth = workers[0].maxDepth;
+        for (int i = 1; i < workers.length; ++i) {
+            tasks[i].join();
+            depth = Math.max(depth, workers[i].maxDepth);
+        }
+
+        int best = bestChild(pool, root);
+        return new SearchResult(pool.getMove(best), score(pool.getWins(best), pool.getVisits(best)), depth,
+                playouts.get(), System.nanoTime() - start);
+    }
+
+    @Override
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Converts a total result to a score in thousandths.
+     */
+    static long score(long wins, long visits) {
+        return visits == 0 ? 500 : 500 * wins / visits;
+    }
+
+    /**
+     * Makes {@code position} the root, keeping the subtree under it if it is
+     * already in the tree.
+     */
+    void moveRoot(BoardSnapshot position) {
+        int node = rootPosition == null ? -1 : find(position);
+
+        if (node < 0) {
+            root = pool.reset();
+        }
+        else if (node != root) {
+            root = spare.copySubtree(pool, node);
+            NodePool swap = pool;
+            pool = spare;
+            spare = swap;
+        }
+        rootPosition = position;
+    }
+
+    /**
+     * Looks for {@code position} at the root or within two moves of it.
+     *
+     * @return the node, or {@code -1} if it isn't there
+     */
+    private int find(BoardSnapshot position) {
+        if (position.equals(rootPosition)) {
+            return root;
+        }
+        for (int i = 0, first = pool.getFirstChild(root); first >= 0 && i < pool.getChildCount(root); ++i) {
+            int child = first + i;
+            BoardSnapshot next = play(rootPosition, pool.getMove(child));
+            if (position.equals(next)) {
+                return child;
+            }
+            for (int j = 0, grandchildren = pool.getFirstChild(child);
+                 grandchildren >= 0 && j < pool.getChildCount(child); ++j) {
+                if (position.equals(play(next, pool.getMove(grandchildren + j)))) {
+                    return grandchildren + j;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static BoardSnapshot play(BoardSnapshot position, int move) {
+        return move == PASS ? position.pass() : position.play(move);
+    }
+
+    /**
+     * Chooses the child with the greatest UCB1 value, or the first child that
+     * hasn't been visited.
+     */
+    int select(NodePool pool, int node, int first) {
+        int n = pool.childCount[node];
+        double logVisits = Math.log(Math.max(1, pool.visits.get(node)));
+
+        int best = first;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int child = first; child < first + n; ++child) {
+            int visits = pool.visits.get(child);
+            if (visits == 0) {
+                return child;
+            }
+            double value = pool.wins.get(child) / (2.0 * visits) + exploration * Math.sqrt(logVisits / visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Adds a node's children: one per legal move, or a single pass. Does
+     * nothing if another thread is already expanding the node.
+     *
+     * @return {@code false} if the node wasn't expanded
+     */
+    static boolean expand(NodePool pool, int node, long own, long opp) {
+        long moves = Bitboards.legalMoves(own, opp);
+        if (moves == 0 && Bitboards.legalMoves(opp, own) == 0) {
+            return false;                                   // the game is over
+        }
+        if (!pool.claim(node)) {
+            return false;
+        }
+
+        int n = moves == 0 ? 1 : Long.bitCount(moves);
+        int first = pool.allocate(n, moves == 0 ? PASS : Long.numberOfTrailingZeros(moves));
+        if (first < 0) {
+            pool.release(node);
+            return false;
+        }
+        for (int child = first; moves != 0; moves &= moves - 1) {
+            pool.setMove(child++, Long.numberOfTrailingZeros(moves));
+        }
+        pool.setChildren(node, first, n);
+        return true;
+    }
+
+    /**
+     * Plays random moves until the game ends.
+     *
+     * @return {@code 1} if the side to move at the start wins, {@code -1} if
+     *         they lose and {@code 0} for a draw
+     */
+    static int randomGame(long own, long opp, SplittableRandom random) {
+        boolean swapped = false;
+        long moves = Bitboards.legalMoves(own, opp);
+
+        while (true) {
+            if (moves == 0) {
+                moves = Bitboards.legalMoves(opp, own);
+                if (moves == 0) {
+                    break;
+                }
+            }
+            else {
+                for (int i = random.nextInt(Long.bitCount(moves)); i > 0; --i) {
+                    moves &= moves - 1;
+                }
+                int square = Long.numberOfTrailingZeros(moves);
+                long flipped = Bitboards.flips(square, own, opp);
+                own |= flipped | bit(square);
+                opp &= ~flipped;
+                moves = Bitboards.legalMoves(opp, own);
+            }
+
+            long swap = own;
+            own = opp;
+            opp = swap;
+            swapped = !swapped;
+        }
+
+        int diff = Long.bitCount(own) - Long.bitCount(opp);
+        return Integer.signum(swapped ? -diff : diff);
+    }
+
+    /**
+     * Returns the root's most visited child.
+     */
+    static int bestChild(NodePool pool, int root) {
+        int first = pool.getFirstChild(root), best = first;
+        for (int child = first + 1; child < first + pool.getChildCount(root); ++child) {
+            if (pool.getVisits(child) > pool.getVisits(best)) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the number of playouts that passed through the root so far,
+     * including those kept from earlier searches.
+     *
+     * @return the number of playouts
+     */
+    public int getRootVisits() {
+        return root < 0 ? 0 : pool.getVisits(root);
+    }
+
+    /**
+     * Returns the number of nodes in the tree.
+     *
+     * @return the size of the tree
+     */
+    public int getTreeSize() {
+        return pool.size();
+    }
+
+    /**
+     * Returns the number of threads that search the tree.
+     *
+     * @return the number of threads
+     */
+    public int getThreads() {
+        return workers.length;
+    }
+
+    /**
+     * Stops the helper threads, if there are any.
+     */
+    public void shutdown() {
+        if (threadPool != null) {
+            threadPool.shutdown();
+        }
+    }
+
+    /**
+     * The state of one searching thread.
+     */
+    class Worker {
+
+        final SplittableRandom random;
+        final int[] path = new int[MAX_DEPTH];
+        int maxDepth;
+
+        Worker(SplittableRandom random) {
+            this.random = random;
+        }
+
+        void run(long own, long opp, long playoutLimit, long deadline) {
+            maxDepth = 0;
+            do {
+                playout(own, opp);
+            } while (playouts.incrementAndGet() < playoutLimit && !stopRequested && System.nanoTime() < deadline);
+        }
+
+        /**
+         * Runs one playout from the root, whose side to move owns {@code own}.
+         */
+        private void playout(long own, long opp) {
+            NodePool pool = MonteCarloTreeSearch.this.pool;
+            int node = root, depth = 0;
+            path[0] = node;
+            pool.visits.addAndGet(node, virtualLoss);
+
+            while (true) {
+                int first = pool.firstChild.get(node);
+
+                // a leaf is expanded the second time a playout reaches it
+                if (first < 0) {
+                    if (first == NodePool.EXPANDING
+                            || pool.visits.get(node) <= virtualLoss && node != root
+                            || !expand(pool, node, own, opp)) {
+                        break;
+                    }
+                    first = pool.firstChild.get(node);
+                }
+
+                node = select(pool, node, first);
+                pool.visits.addAndGet(node, virtualLoss);
+
+                int square = pool.move[node];
+                long flipped = square == PASS ? 0L : Bitboards.flips(square, own, opp);
+                long next = opp & ~flipped;
+                opp = square == PASS ? own : own | flipped | bit(square);
+                own = next;
+                path[++depth] = node;
+            }
+            maxDepth = Math.max(maxDepth, depth);
+
+            // the result for the side to move at the leaf, which is the side
+            // that didn't play the leaf's move
+            int result = randomGame(own, opp, random);
+            for (int i = depth; i >= 0; --i) {
+                node = path[i];
+                pool.visits.addAndGet(node, 1 - virtualLoss);
+                pool.wins.addAndGet(node, 1 - result);
+                result = -result;
+            }
+        }
+    }
+}
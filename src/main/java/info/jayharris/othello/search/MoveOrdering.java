@@ -0,0 +1,287 @@
+package info.jayharris.othello.search;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.heuristics.PositionalHeuristic;
+import org.apache.commons.lang3.Validate;
+
+import java.util.Arrays;
+
+/**
+ * Decides the order in which a search tries the moves at each node. In
+ * priority order:
+ *
+ * <ol>
+ *     <li>the best move stored in the transposition table;</li>
+ *     <li>the two most recent moves that caused a cutoff at the same ply
+ *     (killer moves);</li>
+ *     <li>moves that have caused cutoffs often, weighted by the depth of the
+ *     subtree they cut off (the history table);</li>
+ *     <li>a fixed value for each square, so that corners come first and the
+ *     squares next to them last.</li>
+ * </ol>
+ *
+ * Subclasses can change the order by overriding {@link #score(int, Color, int)}.
+ * An instance keeps per-ply buffers, so it must only be used by one search at a
+ * time.
+ */
+public class MoveOrdering {
+
+    public static final int MAX_PLY = 128;
+
+    static final int HASH_MOVE_SCORE = Integer.MAX_VALUE;
+    static final int[] KILLER_SCORES = { 1 << 30, 1 << 29 };
+
+    /**
+     * History scores are halved once any of them passes this, so that
+     * recent cutoffs outweigh old ones and the scores can't overflow.
+     */
+    static final int HISTORY_LIMIT = 1 << 20;
+    static final int HISTORY_SHIFT = 8;
+
+    private final int[] squareValues = new int[Board.SIZE * Board.SIZE];
+    private final int[][] killers = new int[MAX_PLY][KILLER_SCORES.length];
+    private final int[][] history = new int[Color.values().length][Board.SIZE * Board.SIZE];
+
+    private final int[][] moves = new int[MAX_PLY][Board.SIZE * Board.SIZE];
+    private final int[][] scores = new int[MAX_PLY][Board.SIZE * Board.SIZE];
+
+    private final Statistics statistics = new Statistics();
+
+    /**
+     * Constructor. Falls back on {@link PositionalHeuristic#DEFAULT_VALUES}.
+     */
+    public MoveOrdering() {
+        this(PositionalHeuristic.DEFAULT_VALUES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param squareValues the static value of each square, indexed by rank and
+     *                     file, used to order moves that nothing else ranks
+     */
+    public MoveOrdering(int[][] squareValues) {
+        Validate.isTrue(squareValues.length == Board.SIZE);
+
+        for (int rank = 0; rank < Board.SIZE; ++rank) {
+            Validate.isTrue(squareValues[rank].length == Board.SIZE);
+            for (int file = 0; file < Board.SIZE; ++file) {
+                // keep the static value in the low bits, below any history score
+                int value = squareValues[rank][file] + (1 << (HISTORY_SHIFT - 1));
+                Validate.inclusiveBetween(0, (1 << HISTORY_SHIFT) - 1, value, "square value out of range");
+                this.squareValues[rank * Board.SIZE + file] = value;
+            }
+        }
+        clear();
+    }
+
+    /**
+     * Forgets every killer move and history score, and resets the statistics.
+     */
+    public void clear() {
+        for (int[] k : killers) {
+            Arrays.fill(k, TranspositionTable.NO_MOVE);
+        }
+        for (int[] h : history) {
+            Arrays.fill(h, 0);
+        }
+        statistics.reset();
+    }
+
+    /**
+     * Prepares for a new search: forgets the killer moves, which were found
+     * at different plies, halves the history scores and resets the
+     * statistics.
+     */
+    public void newSearch() {
+        for (int[] k : killers) {
+            Arrays.fill(k, TranspositionTable.NO_MOVE);
+        }
+        ageHistory();
+        statistics.reset();
+    }
+
+    /**
+     * Sorts a node's moves, best first, into this ply's buffer. Read them back
+     * with {@link #move(int, int)}.
+     *
+     * @param legalMoves the moves to sort
+     * @param hashMove the transposition table's best move, or
+     *                 {@link TranspositionTable#NO_MOVE}
+     * @param color the side to move
+     * @param ply the distance from the root
+     * @return the number of moves
+     */
+    public int order(long legalMoves, int hashMove, Color color, int ply) {
+        int[] m = moves[ply], s = scores[ply];
+        int n = 0;
+
+        for (; legalMoves != 0; legalMoves &= legalMoves - 1) {
+            int square = Long.numberOfTrailingZeros(legalMoves);
+            int score = square == hashMove ? HASH_MOVE_SCORE : score(square, color, ply);
+
+            // insertion sort: there are rarely more than a dozen or so moves
+            int i = n++;
+            for (; i > 0 && s[i - 1] < score; --i) {
+                m[i] = m[i - 1];
+                s[i] = s[i - 1];
+            }
+            m[i] = square;
+            s[i] = score;
+        }
+        return n;
+    }
+
+    /**
+     * Returns one of the moves sorted by the last call to {@link #order} at
+     * {@code ply}.
+     *
+     * @param ply the distance from the root
+     * @param i the move's rank, starting at zero
+     * @return the square index
+     */
+    public int move(int ply, int i) {
+        return moves[ply][i];
+    }
+
+    /**
+     * Ranks a move that isn't the hash move. Greater is tried earlier.
+     *
+     * @param square the move's square index
+     * @param color the side to move
+     * @param ply the distance from the root
+     * @return the score
+     */
+    protected int score(int square, Color color, int ply) {
+        int[] k = killers[ply];
+        for (int i = 0; i < k.length; ++i) {
+            if (k[i] == square) {
+                return KILLER_SCORES[i];
+            }
+        }
+        return (history[color.ordinal()][square] << HISTORY_SHIFT) + squareValues[square];
+    }
+
+    /**
+     * Records that a move caused a beta cutoff.
+     *
+     * @param square the move's square index
+     * @param color the side that played it
+     * @param ply the distance from the root
+     * @param depth the remaining depth of the node
+     * @param rank how many moves were searched before it at the node
+     */
+    public void cutoff(int square, Color color, int ply, int depth, int rank) {
+        statistics.cutoff(rank);
+
+        int[] k = killers[ply];
+        if (k[0] != square) {
+            k[1] = k[0];
+            k[0] = square;
+        }
+
+        int[] h = history[color.ordinal()];
+        if ((h[square] += depth * depth) > HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+
+    private void ageHistory() {
+        for (int[] table : history) {
+            for (int i = 0; i < table.length; ++i) {
+                table[i] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Records that a node was searched with every move and none caused a
+     * cutoff.
+     */
+    public void noCutoff() {
+        statistics.noCutoff();
+    }
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Counts of how well the ordering has worked since the last
+     * {@link #newSearch()} or {@link #clear()}. A good ordering finds most of its cutoffs with the
+     * first move it tries.
+     */
+    public static class Statistics {
+
+        long nodes, cutoffs, firstMoveCutoffs, movesBeforeCutoff;
+
+        void cutoff(int rank) {
+            ++nodes;
+            ++cutoffs;
+            movesBeforeCutoff += rank;
+            if (rank == 0) {
+                ++firstMoveCutoffs;
+            }
+        }
+
+        void noCutoff() {
+            ++nodes;
+        }
+
+        void reset() {
+            nodes = cutoffs = firstMoveCutoffs = movesBeforeCutoff = 0;
+        }
+
+        /**
+         * Returns the number of interior nodes whose moves were searched.
+         *
+         * @return the number of nodes
+         */
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getCutoffs() {
+            return cutoffs;
+        }
+
+        public long getFirstMoveCutoffs() {
+            return firstMoveCutoffs;
+        }
+
+        /**
+         * Returns the fraction of nodes that ended in a cutoff.
+         *
+         * @return the cutoff rate, or zero if nothing has been searched
+         */
+        public double cutoffRate() {
+            return nodes == 0 ? 0 : (double) cutoffs / nodes;
+        }
+
+        /**
+         * Returns the fraction of cutoffs caused by the first move searched.
+         *
+         * @return the first-move cutoff rate, or zero if there were no cutoffs
+         */
+        public double firstMoveCutoffRate() {
+            return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+        }
+
+        /**
+         * Returns how many moves were searched, on average, before the one that
+         * caused a cutoff.
+         *
+         * @return the mean number of moves
+         */
+        public double meanMovesBeforeCutoff() {
+            return cutoffs == 0 ? 0 : (double) movesBeforeCutoff / cutoffs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("nodes=%d, cutoffs=%d (%.1f%%), first-move cutoffs=%.1f%%, moves before cutoff=%.2f",
+                    nodes, cutoffs, 100 * cutoffRate(), 100 * firstMoveCutoffRate(), meanMovesBeforeCutoff());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package info.jayharris.othello.search;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The nodes of a Monte Carlo search tree, stored as parallel arrays rather
+ * than as objects so that millions of them fit in a modest heap.
+ *
+ * A node's children are allocated together, in one contiguous block, when the
+ * node is expanded; the node records the index of the first child and how many
+ * there are. Statistics are kept from the point of view of the side that
+ * played the node's move: a win counts 2, a draw 1 and a loss 0.
+ *
+ * Several threads may search the same pool at once. Visits, wins and child
+ * links are atomic, and only one thread can {@link #claim(int) claim} a node
+ * to expand it. A node's child count and its children's moves are written
+ * before the link to its children is published, so any thread that sees the
+ * link sees them too. {@link #reset()} and {@link #copySubtree} must not run
+ * while the pool is being searched.
+ */
+public class NodePool {
+
+    /** The move of a node reached by passing. */
+    public static final int PASS = 64;
+
+    /** The first child of a node that hasn't been expanded. */
+    public static final int UNEXPANDED = -1;
+
+    /** The first child of a node that a thread is expanding. */
+    public static final int EXPANDING = -2;
+
+    final AtomicIntegerArray firstChild;
+    final byte[] childCount;
+    final byte[] move;
+    final AtomicIntegerArray visits;
+    final AtomicIntegerArray wins;
+
+    final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Constructor.
+     *
+     * @param capacity the greatest number of nodes the pool can hold
+     */
+    public NodePool(int capacity) {
+        Validate.isTrue(capacity > 0);
+
+        this.firstChild = new AtomicIntegerArray(capacity);
+        this.childCount = new byte[capacity];
+        this.move = new byte[capacity];
+        this.visits = new AtomicIntegerArray(capacity);
+        this.wins = new AtomicIntegerArray(capacity);
+    }
+
+    /**
+     * Forgets every node and allocates a new root.
+     *
+     * @return the root's index
+     */
+    public int reset() {
+        size.set(0);
+        return allocate(1, PASS);
+    }
+
+    /**
+     * Allocates a block of nodes, unexpanded and unvisited.
+     *
+     * @param n the number of nodes
+     * @param firstMove the move of the first node; the others must be set
+     *                  with {@link #setMove(int, int)}
+     * @return the index of the first node, or {@code -1} if the pool is full
+     */
+    int allocate(int n, int firstMove) {
+        int first;
+        do {
+            first = size.get();
+            if (first + n > capacity()) {
+                return -1;
+            }
+        } while (!size.compareAndSet(first, first + n));
+
+        for (int i = first; i < first + n; ++i) {
+            firstChild.lazySet(i, UNEXPANDED);
+            childCount[i] = 0;
+            visits.lazySet(i, 0);
+            wins.lazySet(i, 0);
+        }
+        move[first] = (byte) firstMove;
+        return first;
+    }
+
+    void setMove(int node, int square) {
+        move[node] = (byte) square;
+    }
+
+    /**
+     * Marks an unexpanded node as being expanded by the calling thread.
+     *
+     * @param node the node
+     * @return {@code true} if the caller should expand the node, or
+     *         {@code false} if it already has been or another thread is doing so
+     */
+    boolean claim(int node) {
+        return firstChild.compareAndSet(node, UNEXPANDED, EXPANDING);
+    }
+
+    /**
+     * Gives up a claim on a node without expanding it.
+     */
+    void release(int node) {
+        firstChild.set(node, UNEXPANDED);
+    }
+
+    /**
+     * Publishes a claimed node's children.
+     */
+    void setChildren(int node, int first, int n) {
+        childCount[node] = (byte) n;
+        firstChild.set(node, first);
+    }
+
+    /**
+     * Replaces this pool's contents with the subtree of {@code source} under
+     * {@code root}, which becomes node zero. The copy is breadth-first, so
+     * each node's children stay contiguous.
+     *
+     * @param source the pool to copy from, which must not be this one
+     * @param root the index of the subtree's root in {@code source}
+     * @return the index of the new root, which is zero
+     */
+    public int copySubtree(NodePool source, int root) {
+        Validate.isTrue(source != this && source.size() <= capacity());
+
+        int size = 1;
+        copyNode(source, root, 0);
+
+        // until a node is scanned, its firstChild holds the index in the source
+        for (int i = 0; i < size; ++i) {
+            int first = firstChild.get(i), n = childCount[i];
+            if (first >= 0) {
+                int copy = size;
+                for (int k = 0; k < n; ++k) {
+                    copyNode(source, first + k, copy + k);
+                }
+                firstChild.set(i, copy);
+                size += n;
+            }
+        }
+        this.size.set(size);
+        return 0;
+    }
+
+    private void copyNode(NodePool source, int from, int to) {
+        int first = source.firstChild.get(from);
+        firstChild.set(to, first < 0 ? UNEXPANDED : first);
+        childCount[to] = first < 0 ? 0 : source.childCount[from];
+        move[to] = source.move[from];
+        visits.set(to, source.visits.get(from));
+        wins.set(to, source.wins.get(from));
+    }
+
+    /**
+     * Returns the index of the node's first child, or a negative number if it
+     * hasn't been expanded.
+     *
+     * @param node the node
+     * @return the first child
+     */
+    public int getFirstChild(int node) {
+        return firstChild.get(node);
+    }
+
+    public int getChildCount(int node) {
+        return childCount[node];
+    }
+
+    public int getMove(int node) {
+        return move[node];
+    }
+
+    public int getVisits(int node) {
+        return visits.get(node);
+    }
+
+    /**
+     * Returns the node's total result, counting 2 for each win and 1 for each
+     * draw by the side that played its move.
+     *
+     * @param node the node
+     * @return the total
+     */
+    public int getWins(int node) {
+        return wins.get(node);
+    }
+
+    /**
+     * Returns the number of nodes in use.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size.get();
+    }
+
+    public int capacity() {
+        return childCount.length;
+    }
+}
@@ -0,0 +1,154 @@
+package info.jayharris.othello.search;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardSnapshot;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.heuristics.HeuristicFunction;
+import org.apache.commons.lang3.Validate;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A "lazy SMP" search: several {@link AlphaBetaSearch}es work on the same
+ * position at once, in a {@link ForkJoinPool}, and share nothing but a
+ * {@link TranspositionTable}. The helpers' results reach the main search
+ * through the table, as cutoffs and hash moves.
+ *
+ * Each search plays its moves on its own copy of the board, made from one
+ * {@link BoardSnapshot}. Half of the helpers start one ply deeper than the
+ * main search so that the threads don't all search the same tree in lockstep.
+ *
+ * When the main search finishes, the helpers are stopped and the deepest
+ * completed result wins, preferring the main search's. The node limit applies
+ * to each thread separately.
+ */
+public class ParallelSearch implements Search {
+
+    final AlphaBetaSearch[] workers;
+    final TranspositionTable tt;
+    final ForkJoinPool pool;
+
+    /** Set by {@link #stop()}, so that a stop between resumed slices is kept. */
+    volatile boolean stopRequested;
+
+    /**
+     * Constructor.
+     *
+     * @param h the heuristic used to score leaves
+     * @param tt the transposition table shared by every thread
+     * @param threads the number of threads, at least one
+     */
+    public ParallelSearch(HeuristicFunction h, TranspositionTable tt, int threads) {
+        Validate.notNull(tt);
+        Validate.isTrue(threads > 0, "need at least one thread");
+
+        this.tt = tt;
+        this.workers = new AlphaBetaSearch[threads];
+        for (int i = 0; i < threads; ++i) {
+            workers[i] = new AlphaBetaSearch(h, tt, new MoveOrdering());
+        }
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    @Override
+    public SearchResult search(Board board, Color color, SearchLimits limits) {
+        newSearch();
+        return resume(board, color, limits);
+    }
+
+    @Override
+    public void newSearch() {
+        stopRequested = false;
+        tt.newSearch();                             // once, before any worker stores
+    }
+
+    @Override
+    public SearchResult resume(Board board, Color color, SearchLimits limits) {
+        long start = System.nanoTime();
+        BoardSnapshot snapshot = board.snapshot();
+
+        // only the main search consults the time manager; the helpers are
+        // stopped when it finishes
+        SearchLimits helperLimits = limits.toBuilder().timeManager(null).build();
+
+        // the helpers were stopped when the last slice finished; clear that,
+        // then stop everyone again if a stop came from outside since newSearch
+        for (AlphaBetaSearch worker : workers) {
+            worker.stopRequested = false;
+        }
+        if (stopRequested) {
+            stopWorkers();
+        }
+
+        @SuppressWarnings("unchecked")
+        ForkJoinTask<SearchResult>[] tasks = (ForkJoinTask<SearchResult>[]) new ForkJoinTask<?>[workers.length];
+        for (int i = workers.length - 1; i >= 0; --i) {
+            AlphaBetaSearch worker = workers[i];
+            int firstDepth = 1 + i % 2;
+            SearchLimits workerLimits = i == 0 ? limits : helperLimits;
+            tasks[i] = pool.submit(() -> worker.search(snapshot.toBoard(), color, workerLimits, firstDepth));
+        }
+
+        SearchResult best;
+        try {
+            best = tasks[0].join();
+        }
+        finally {
+            for (int i = 1; i < workers.length; ++i) {
+                workers[i].stop();
+            }
+        }
+
+        long nodes = best.nodes;
+        for (int i = 1; i < tasks.length; ++i) {
+            SearchResult result = tasks[i].join();
+            nodes += result.nodes;
+            if (result.depth > best.depth && result.move != SearchResult.NO_MOVE) {
+                best = result;
+            }
+        }
+
+        return new SearchResult(best.move, best.score, best.depth, nodes, System.nanoTime() - start);
+    }
+
+    @Override
+    public void stop() {
+        stopRequested = true;
+        stopWorkers();
+    }
+
+    private void stopWorkers() {
+        for (AlphaBetaSearch worker : workers) {
+            worker.stop();
+        }
+    }
+
+    /**
+     * Turns Multi-ProbCut pruning on or off in every thread.
+     *
+     * @param probCut the parameters, or {@code null} to never prune
+     * @see AlphaBetaSearch#setProbCut(ProbCut)
+     */
+    public void setProbCut(ProbCut probCut) {
+        for (AlphaBetaSearch worker : workers) {
+            worker.setProbCut(probCut);
+        }
+    }
+
+    /**
+     * Returns the number of threads that search at once.
+     *
+     * @return the number of threads
+     */
+    public int getThreads() {
+        return workers.length;
+    }
+
+    /**
+     * Stops the pool's threads once the current search, if any, is finished.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,213 @@
+package info.jayharris.othello.search;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardSnapshot;
+import info.jayharris.othello.Othello.Color;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches on the opponent's time. After a player moves, {@link #start} runs
+ * its search in the background, and {@link #stop} cancels it when the player's
+ * next turn begins. The work isn't thrown away: it stays in the search's
+ * transposition table or tree, so the next real search starts from it.
+ *
+ * A search that keeps a table of positions needs a position to ponder on, so
+ * the ponderer predicts the opponent's reply with a short search and ponders
+ * on the position after it. A Monte Carlo search can instead ponder on the
+ * opponent's position itself, since its tree covers every reply.
+ *
+ * The background search runs in short slices, so that a cancellation is seen
+ * quickly even if it arrives before a slice has started. The slices are
+ * {@link Search#resume resumed} parts of one search, so a stop between them
+ * isn't forgotten, and they all store into the same generation of the
+ * search's table.
+ */
+public class Ponderer {
+
+    /** How long each slice of pondering may run. */
+    public static final long SLICE_MILLIS = 100;
+
+    /** Pondering gives up after this long, in case the game ended. */
+    public static final long MAX_PONDER_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /** The depth of the search that predicts the opponent's reply. */
+    public static final int PREDICTION_DEPTH = 4;
+
+    final Search search;
+    final SearchLimits limits;
+    final boolean predictReply;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ponder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Future<?> task;
+    private volatile boolean cancelled;
+    private volatile BoardSnapshot prediction;
+
+    int hits, misses;
+
+    /**
+     * Constructor.
+     *
+     * @param search the player's search. It must not be used by anything else
+     *               between {@link #start} and {@link #stop}.
+     * @param limits the player's limits. Pondering searches no deeper and uses
+     *               no more nodes per slice than these allow.
+     * @param predictReply whether to ponder on the position after the predicted
+     *                     reply, rather than the opponent's position
+     */
+    public Ponderer(Search search, SearchLimits limits, boolean predictReply) {
+        this.search = search;
+        this.limits = limits;
+        this.predictReply = predictReply;
+    }
+
+    /**
+     * Starts pondering. Does nothing if neither side can move.
+     *
+     * @param board the board just after the player moved
+     * @param color the player's color
+     */
+    public void start(Board board, Color color) {
+        stop();
+
+        BoardSnapshot position = board.snapshot();
+        if (position.isGameOver()) {
+            return;
+        }
+
+        cancelled = false;
+        prediction = null;
+        search.newSearch();
+        task = executor.submit(() -> ponder(position, color));
+    }
+
+    /**
+     * Stops pondering and waits for the background search to finish.
+     *
+     * @param board the board at the start of the player's turn
+     * @param color the player's color
+     * @return {@code true} if the player is to move in the position that was
+     *         pondered on
+     */
+    public boolean stop(Board board, Color color) {
+        boolean pondering = task != null;
+        stop();
+        if (!pondering) {
+            return false;
+        }
+
+        BoardSnapshot position = board.snapshot();
+        if (position.getSideToMove() != color) {
+            position = position.pass();
+        }
+        if (position.equals(prediction)) {
+            ++hits;
+            return true;
+        }
+        ++misses;
+        return false;
+    }
+
+    private void stop() {
+        if (task == null) {
+            return;
+        }
+
+        cancelled = true;
+        search.stop();
+        try {
+            task.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        finally {
+            task = null;
+        }
+    }
+
+    private void ponder(BoardSnapshot position, Color color) {
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_PONDER_MILLIS);
+        Color opponent = color.opposite();
+
+        BoardSnapshot target = position.getSideToMove() == opponent ? position : position.pass();
+        Color side = opponent;
+
+        if (target.legalMoves() == 0) {
+            target = target.pass();                 // the opponent will have to pass
+            side = color;
+        }
+        else if (predictReply) {
+            SearchLimits predictionLimits = SearchLimits.builder()
+                    .depth(Math.min(limits.depth, PREDICTION_DEPTH)).millis(SLICE_MILLIS).build();
+            SearchResult reply = search.resume(target.toBoard(), opponent, predictionLimits);
+            if (cancelled || reply.move == SearchResult.NO_MOVE) {
+                return;
+            }
+
+            target = target.play(reply.move);
+            side = color;
+            if (target.legalMoves() == 0) {
+                return;                             // we would have to pass; nothing to ponder
+            }
+        }
+        prediction = side == color ? target : null;
+
+        SearchLimits.SearchLimitsBuilder slice = SearchLimits.builder().depth(limits.depth).millis(SLICE_MILLIS);
+        if (limits.nodes != Long.MAX_VALUE) {
+            slice.nodes(limits.nodes);
+        }
+        SearchLimits sliceLimits = slice.build();
+
+        // stop when cancelled, or when a slice finishes early because there's
+        // nothing more to search
+        SearchResult result;
+        do {
+            result = search.resume(target.toBoard(), side, sliceLimits);
+        } while (!cancelled && result.nanos >= TimeUnit.MILLISECONDS.toNanos(SLICE_MILLIS)
+                && System.nanoTime() < end);
+    }
+
+    /**
+     * Returns the position being pondered on, if the player is to move in it.
+     *
+     * @return the position, or {@code null}
+     */
+    public BoardSnapshot getPrediction() {
+        return prediction;
+    }
+
+    /**
+     * Returns how many times the player's turn began in the position that was
+     * pondered on.
+     *
+     * @return the number of hits
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    /**
+     * Stops pondering for good and releases the background thread.
+     */
+    public void shutdown() {
+        stop();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,270 @@
+package info.jayharris.othello.search;
+
+import org.apache.commons.lang3.Validate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The parameters of Multi-ProbCut, which prunes a subtree when a shallow
+ * search shows that a deep one would almost certainly fail high or low.
+ *
+ * For each game stage and each pair of a deep and a shallow depth, the deep
+ * score {@code v} is modelled as {@code slope * v' + intercept} plus normally
+ * distributed noise with standard deviation {@code sigma}, where {@code v'} is
+ * the shallow score. A deep search would fail high against {@code beta} with
+ * probability roughly {@code Φ(threshold)} if the shallow score is at least
+ * {@link #upperBound}, and fail low against {@code alpha} likewise if it is at
+ * most {@link #lowerBound}.
+ *
+ * The parameters depend on the heuristic, so they are fitted by running
+ * searches with it (see {@code tools.ProbCutCalibration}) and kept in a text
+ * file, one pair per line:
+ * {@code stage deep shallow slope intercept sigma}.
+ */
+public class ProbCut {
+
+    /** The number of game stages, by disc count. */
+    public static final int STAGES = 6;
+    public static final int STAGE_DISCS = 10;
+
+    /** The shallowest depth that is ever pruned. */
+    public static final int MIN_DEPTH = 3;
+
+    /** The deepest depth that can be calibrated. */
+    public static final int MAX_DEPTH = 16;
+
+    public static final double DEFAULT_THRESHOLD = 1.5;
+
+    private static final int[][] SHALLOW_DEPTHS = new int[MAX_DEPTH + 1][];
+
+    static {
+        for (int depth = 0; depth <= MAX_DEPTH; ++depth) {
+            // the two deepest checks of the same parity, no deeper than half
+            // the depth, cheapest first
+            int shallow = depth / 2 % 2 == depth % 2 ? depth / 2 : depth / 2 - 1;
+            if (depth < MIN_DEPTH || shallow < 1) {
+                SHALLOW_DEPTHS[depth] = new int[0];
+            }
+            else if (shallow - 2 >= 1) {
+                SHALLOW_DEPTHS[depth] = new int[] { shallow - 2, shallow };
+            }
+            else {
+                SHALLOW_DEPTHS[depth] = new int[] { shallow };
+            }
+        }
+    }
+
+    final double[][][] slope, intercept, sigma;
+    double threshold = DEFAULT_THRESHOLD;
+
+    /**
+     * Constructor for a ProbCut with no parameters, which never prunes.
+     */
+    public ProbCut() {
+        this.slope = newTable();
+        this.intercept = newTable();
+        this.sigma = newTable();
+    }
+
+    private static double[][][] newTable() {
+        double[][][] table = new double[STAGES][MAX_DEPTH + 1][MAX_DEPTH + 1];
+        for (double[][] stage : table) {
+            for (double[] deep : stage) {
+                Arrays.fill(deep, Double.NaN);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns the game stage of a position.
+     *
+     * @param discs the number of discs on the board
+     * @return the stage, from 0 to {@code STAGES - 1}
+     */
+    public static int stage(long discs) {
+        return (int) Math.max(0, Math.min(STAGES - 1, (discs - 4) / STAGE_DISCS));
+    }
+
+    /**
+     * Returns the shallow depths used to try to prune a search of the given
+     * depth, cheapest first. Each has the same parity as the depth, so that
+     * the same side moves last in both searches.
+     *
+     * @param depth the depth
+     * @return the shallow depths, possibly none
+     */
+    public static int[] shallowDepths(int depth) {
+        return depth <= MAX_DEPTH ? SHALLOW_DEPTHS[depth] : SHALLOW_DEPTHS[0];
+    }
+
+    /**
+     * Sets the parameters for one stage and depth pair.
+     *
+     * @param stage the stage
+     * @param deep the deep depth
+     * @param shallow the shallow depth
+     * @param slope the regression slope, which must be positive
+     * @param intercept the regression intercept
+     * @param sigma the standard deviation of the residuals
+     */
+    public void set(int stage, int deep, int shallow, double slope, double intercept, double sigma) {
+        Validate.isTrue(slope > 0 && sigma >= 0);
+        this.slope[stage][deep][shallow] = slope;
+        this.intercept[stage][deep][shallow] = intercept;
+        this.sigma[stage][deep][shallow] = sigma;
+    }
+
+    public boolean has(int stage, int deep, int shallow) {
+        return !Double.isNaN(slope[stage][deep][shallow]);
+    }
+
+    public double getSlope(int stage, int deep, int shallow) {
+        return slope[stage][deep][shallow];
+    }
+
+    public double getIntercept(int stage, int deep, int shallow) {
+        return intercept[stage][deep][shallow];
+    }
+
+    public double getSigma(int stage, int deep, int shallow) {
+        return sigma[stage][deep][shallow];
+    }
+
+    /**
+     * Sets how many standard deviations a shallow score must clear before a
+     * subtree is pruned. Larger is safer and prunes less.
+     *
+     * @param threshold the threshold
+     */
+    public void setThreshold(double threshold) {
+        Validate.isTrue(threshold > 0);
+        this.threshold = threshold;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Returns the shallow score at or above which a deep search would
+     * probably fail high.
+     *
+     * @return the bound
+     */
+    public long upperBound(int stage, int deep, int shallow, long beta) {
+        double bound = (beta + threshold * sigma[stage][deep][shallow] - intercept[stage][deep][shallow])
+                / slope[stage][deep][shallow];
+        return (long) Math.ceil(bound);
+    }
+
+    /**
+     * Returns the shallow score at or below which a deep search would
+     * probably fail low.
+     *
+     * @return the bound
+     */
+    public long lowerBound(int stage, int deep, int shallow, long alpha) {
+        double bound = (alpha - threshold * sigma[stage][deep][shallow] - intercept[stage][deep][shallow])
+                / slope[stage][deep][shallow];
+        return (long) Math.floor(bound);
+    }
+
+    /**
+     * Writes the parameters to a file.
+     *
+     * @param path the file
+     * @throws IOException if the file can't be written
+     */
+    public void save(Path path) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            out.println("# stage deep shallow slope intercept sigma");
+            for (int stage = 0; stage < STAGES; ++stage) {
+                for (int deep = 0; deep <= MAX_DEPTH; ++deep) {
+                    for (int shallow = 0; shallow <= MAX_DEPTH; ++shallow) {
+                        if (has(stage, deep, shallow)) {
+                            out.println(String.format("%d %d %d %s %s %s", stage, deep, shallow,
+                                    slope[stage][deep][shallow], intercept[stage][deep][shallow],
+                                    sigma[stage][deep][shallow]));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads parameters written by {@link #save(Path)}.
+     *
+     * @param path the file
+     * @return the parameters, with the default threshold
+     * @throws IOException if the file can't be read
+     * @throws IllegalArgumentException if a line can't be parsed
+     */
+    public static ProbCut load(Path path) throws IOException {
+        ProbCut probCut = new ProbCut();
+        try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] fields = line.split("\\s+");
+                Validate.isTrue(fields.length == 6, "bad ProbCut line: %s", line);
+                probCut.set(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), Integer.parseInt(fields[2]),
+                        Double.parseDouble(fields[3]), Double.parseDouble(fields[4]), Double.parseDouble(fields[5]));
+            }
+        }
+        return probCut;
+    }
+
+    /**
+     * A least-squares fit of deep scores against shallow ones, built up one
+     * sample at a time.
+     */
+    public static class Fit {
+
+        long n;
+        double sumX, sumY, sumXX, sumXY, sumYY;
+
+        public void add(double shallow, double deep) {
+            ++n;
+            sumX += shallow;
+            sumY += deep;
+            sumXX += shallow * shallow;
+            sumXY += shallow * deep;
+            sumYY += deep * deep;
+        }
+
+        public long getSamples() {
+            return n;
+        }
+
+        public double slope() {
+            return (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX);
+        }
+
+        public double intercept() {
+            return (sumY - slope() * sumX) / n;
+        }
+
+        /**
+         * Returns the standard deviation of the residuals.
+         *
+         * @return sigma
+         */
+        public double sigma() {
+            double a = slope(), b = intercept();
+            double residuals = sumYY - 2 * a * sumXY - 2 * b * sumY + a * a * sumXX + 2 * a * b * sumX + n * b * b;
+            return Math.sqrt(Math.max(0, residuals) / Math.max(1, n - 2));
+        }
+    }
+}
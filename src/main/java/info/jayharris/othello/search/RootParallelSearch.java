@@ -0,0 +1,127 @@
+package info.jayharris.othello.search;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardSnapshot;
+import info.jayharris.othello.Othello.Color;
+import org.apache.commons.lang3.Validate;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Monte Carlo tree search with root parallelization: each thread grows its own
+ * independent tree from the same position, and the trees are merged at the
+ * end by adding up the visits and wins of each root move. The most visited
+ * move overall is played.
+ *
+ * Each tree is kept between searches, just like a single
+ * {@link MonteCarloTreeSearch}'s. A playout budget is split evenly between
+ * the trees.
+ */
+public class RootParallelSearch implements Search {
+
+    final MonteCarloTreeSearch[] trees;
+    final ForkJoinPool pool;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity the most nodes each tree may hold
+     * @param exploration the UCB1 exploration constant
+     * @param random the source of randomness; each tree gets its own split
+     * @param threads the number of threads, each with its own tree
+     */
+    public RootParallelSearch(int capacity, double exploration, SplittableRandom random, int threads) {
+        Validate.isTrue(threads > 0, "need at least one thread");
+
+        this.trees = new MonteCarloTreeSearch[threads];
+        for (int i = 0; i < threads; ++i) {
+            trees[i] = new MonteCarloTreeSearch(capacity, exploration, random.split());
+        }
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    @Override
+    public SearchResult search(Board board, Color color, SearchLimits limits) {
+        newSearch();
+        return resume(board, color, limits);
+    }
+
+    @Override
+    public void newSearch() {
+        for (MonteCarloTreeSearch tree : trees) {
+            tree.newSearch();
+        }
+    }
+
+    @Override
+    public SearchResult resume(Board board, Color color, SearchLimits limits) {
+        long start = System.nanoTime();
+        BoardSnapshot position = board.snapshot();
+
+        SearchLimits share = limits;
+        if (limits.millis == Long.MAX_VALUE) {
+            long playouts = limits.nodes == Long.MAX_VALUE ? MonteCarloTreeSearch.DEFAULT_PLAYOUTS : limits.nodes;
+            share = SearchLimits.builder().nodes(Math.max(1, playouts / trees.length)).build();
+        }
+
+        @SuppressWarnings("unchecked")
+        ForkJoinTask<SearchResult>[] tasks = (ForkJoinTask<SearchResult>[]) new ForkJoinTask<?>[trees.length];
+        for (int i = 0; i < trees.length; ++i) {
+            MonteCarloTreeSearch tree = trees[i];
+            SearchLimits treeLimits = share;
+            tasks[i] = pool.submit(() -> tree.resume(position.toBoard(), color, treeLimits));
+        }
+
+        long[] visits = new long[Board.SIZE * Board.SIZE], wins = new long[Board.SIZE * Board.SIZE];
+        long playouts = 0;
+        int depth = 0;
+
+        int best = SearchResult.NO_MOVE;
+        for (int i = 0; i < trees.length; ++i) {
+            SearchResult result = tasks[i].join();
+            if (result.move == SearchResult.NO_MOVE) {
+                return new SearchResult(SearchResult.NO_MOVE, 0, 0, 0, System.nanoTime() - start);
+            }
+            best = result.move;
+            playouts += result.nodes;
+            depth = Math.max(depth, result.depth);
+
+            NodePool nodes = trees[i].pool;
+            int root = trees[i].root, first = nodes.getFirstChild(root);
+            for (int child = first; child < first + nodes.getChildCount(root); ++child) {
+                visits[nodes.getMove(child)] += nodes.getVisits(child);
+                wins[nodes.getMove(child)] += nodes.getWins(child);
+            }
+        }
+
+        for (int square = 0; square < visits.length; ++square) {
+            if (visits[square] > visits[best]) {
+                best = square;
+            }
+        }
+        return new SearchResult(best, MonteCarloTreeSearch.score(wins[best], visits[best]), depth,
+                playouts, System.nanoTime() - start);
+    }
+
+    @Override
+    public void stop() {
+        for (MonteCarloTreeSearch tree : trees) {
+            tree.stop();
+        }
+    }
+
+    /**
+     * Returns the number of threads, which is also the number of trees.
+     *
+     * @return the number of threads
+     */
+    public int getThreads() {
+        return trees.length;
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
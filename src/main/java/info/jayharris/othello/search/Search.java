@@ -0,0 +1,50 @@
+package info.jayharris.othello.search;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.Othello.Color;
+
+/**
+ * Something that looks ahead from a position to choose a move.
+ */
+public interface Search {
+
+    /**
+     * Searches for the best move for {@code color}. The board isn't changed.
+     *
+     * @param board the board
+     * @param color the side to move
+     * @param limits when to stop
+     * @return the best move found and how much work it took
+     */
+    SearchResult search(Board board, Color color, SearchLimits limits);
+
+    /**
+     * Starts a search that will be run in slices by {@link #resume}: forgets
+     * any earlier request to {@link #stop()}, and starts a new generation in
+     * anything the search keeps from one search to the next.
+     * {@link #search} does this itself.
+     */
+    default void newSearch() {
+    }
+
+    /**
+     * Searches like {@link #search}, but as part of the search last started
+     * by {@link #newSearch()}. A stop requested since then is still honored,
+     * even if it came before this call, and what earlier slices stored is
+     * still current.
+     *
+     * @param board the board
+     * @param color the side to move
+     * @param limits when to stop this slice
+     * @return the best move found and how much work it took
+     */
+    default SearchResult resume(Board board, Color color, SearchLimits limits) {
+        return search(board, color, limits);
+    }
+
+    /**
+     * Asks a running search to stop as soon as possible. May be called from
+     * any thread.
+     */
+    void stop();
+}
@@ -0,0 +1,117 @@
+package info.jayharris.othello.search;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Bounds on a single search: the deepest iteration to run, and budgets of
+ * wall-clock time and nodes. The search stops at whichever comes first.
+ * A {@link TimeManager} may also end an iterative deepening search between
+ * iterations, before its time budget is spent.
+ */
+public class SearchLimits {
+
+    public static final int MAX_DEPTH = 60;
+
+    public final int depth;
+    public final long millis;
+    public final long nodes;
+    public final TimeManager timeManager;
+
+    private SearchLimits(int depth, long millis, long nodes, TimeManager timeManager) {
+        this.depth = depth;
+        this.millis = millis;
+        this.nodes = nodes;
+        this.timeManager = timeManager;
+    }
+
+    public static SearchLimitsBuilder builder() {
+        return new SearchLimitsBuilder();
+    }
+
+    /**
+     * Returns a builder that starts out with these limits.
+     *
+     * @return the builder
+     */
+    public SearchLimitsBuilder toBuilder() {
+        SearchLimitsBuilder builder = new SearchLimitsBuilder();
+        builder.depth = depth;
+        builder.millis = millis;
+        builder.nodes = nodes;
+        builder.timeManager = timeManager;
+        return builder;
+    }
+
+    /**
+     * Searches to exactly {@code depth} plies, with no time or node budget.
+     *
+     * @param depth the depth
+     * @return the limits
+     */
+    public static SearchLimits depth(int depth) {
+        return builder().depth(depth).build();
+    }
+
+    /**
+     * Searches as deep as possible within {@code millis} milliseconds.
+     *
+     * @param millis the time budget
+     * @return the limits
+     */
+    public static SearchLimits millis(long millis) {
+        return builder().millis(millis).build();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuffer sb = new StringBuffer("SearchLimits{");
+        sb.append("depth=").append(depth);
+        sb.append(", millis=").append(millis);
+        sb.append(", nodes=").append(nodes);
+        if (timeManager != null) {
+            sb.append(", timeManager=").append(timeManager);
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    public static class SearchLimitsBuilder {
+
+        int depth = MAX_DEPTH;
+        long millis = Long.MAX_VALUE;
+        long nodes = Long.MAX_VALUE;
+        TimeManager timeManager;
+
+        public SearchLimitsBuilder depth(int depth) {
+            Validate.inclusiveBetween(1, MAX_DEPTH, depth);
+            this.depth = depth;
+            return this;
+        }
+
+        public SearchLimitsBuilder millis(long millis) {
+            Validate.isTrue(millis > 0);
+            this.millis = millis;
+            return this;
+        }
+
+        public SearchLimitsBuilder nodes(long nodes) {
+            Validate.isTrue(nodes > 0);
+            this.nodes = nodes;
+            return this;
+        }
+
+        /**
+         * Sets a time manager, which is consulted after each iteration and
+         * may stop the search early. It is stateful, so it may be used for
+         * only one search.
+         */
+        public SearchLimitsBuilder timeManager(TimeManager timeManager) {
+            this.timeManager = timeManager;
+            return this;
+        }
+
+        public SearchLimits build() {
+            return new SearchLimits(depth, millis, nodes, timeManager);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package info.jayharris.othello.search;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of a search: the best move found at the deepest completed
+ * iteration, its score and how much work it took.
+ */
+public class SearchResult {
+
+    public static final int NO_MOVE = -1;
+
+    public final int move;
+    public final long score;
+    public final int depth;
+    public final long nodes;
+    public final long nanos;
+
+    public SearchResult(int move, long score, int depth, long nodes, long nanos) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Returns the search speed in nodes per second.
+     *
+     * @return the nodes per second
+     */
+    public long nodesPerSecond() {
+        return nanos == 0 ? 0 : nodes * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    /**
+     * Returns the effective branching factor: the number of children a node
+     * would need for a tree of this depth to hold this many nodes.
+     *
+     * @return the effective branching factor, or zero if nothing was searched
+     */
+    public double effectiveBranchingFactor() {
+        return depth == 0 ? 0 : Math.pow(nodes, 1.0 / depth);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuffer sb = new StringBuffer("SearchResult{");
+        sb.append("move=").append(move);
+        sb.append(", score=").append(score);
+        sb.append(", depth=").append(depth);
+        sb.append(", nodes=").append(nodes);
+        sb.append(", millis=").append(TimeUnit.NANOSECONDS.toMillis(nanos));
+        sb.append(", nps=").append(nodesPerSecond());
+        sb.append(", ebf=").append(String.format("%.2f", effectiveBranchingFactor()));
+        sb.append('}');
+        return sb.toString();
+    }
+}
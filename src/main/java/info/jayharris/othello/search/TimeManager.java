@@ -0,0 +1,161 @@
+package info.jayharris.othello.search;
+
+import info.jayharris.othello.GameClock;
+import info.jayharris.othello.Othello.Color;
+import org.apache.commons.lang3.Validate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides how long to think about one move in a timed game.
+ *
+ * The budget is worked out from the time left on the clock and the number of
+ * moves still to play, which is about half the number of empty squares. A
+ * move gets a target time, and a maximum that the search may never exceed.
+ *
+ * An iterative deepening search asks after each iteration whether to go on,
+ * via {@link #shouldStop}. Once the best move has held for a few iterations
+ * the target is halved; if the score has dropped sharply it is doubled, up
+ * to the maximum. The score is compared with the one from two iterations
+ * back, since scores tend to swing between odd and even depths.
+ *
+ * Since each iteration takes several times longer than the one before, the
+ * search stops as soon as there is too little time left to finish another.
+ */
+public class TimeManager {
+
+    /** Moves budgeted for beyond those left in the game, as a reserve. */
+    public static final int SAFETY_MOVES = 2;
+
+    /** Time held back from every move for everything but the search. */
+    public static final long OVERHEAD_MILLIS = 20;
+
+    /** A move may take at most this many times its target. */
+    public static final int MAX_FACTOR = 4;
+
+    /** The number of iterations the best move must hold for it to be stable. */
+    public static final int STABLE_ITERATIONS = 3;
+
+    /** A score drop, in the heuristic's units, that earns more time. */
+    public static final long DEFAULT_SCORE_DROP = 32;
+
+    /** Another iteration isn't started after this fraction of the target. */
+    static final double NEXT_ITERATION_FRACTION = 0.5;
+
+    final long targetNanos, maximumNanos;
+    final long scoreDrop;
+
+    long spentNanos;
+    int lastMove = SearchResult.NO_MOVE;
+    int iterations, stableIterations;
+    final long[] scores = new long[2];
+
+    /**
+     * Constructor.
+     *
+     * @param remainingMillis the time left on the player's clock
+     * @param incrementMillis the time added to the clock after each move
+     * @param empties the number of empty squares on the board
+     */
+    public TimeManager(long remainingMillis, long incrementMillis, int empties) {
+        this(remainingMillis, incrementMillis, empties, DEFAULT_SCORE_DROP);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param remainingMillis the time left on the player's clock
+     * @param incrementMillis the time added to the clock after each move
+     * @param empties the number of empty squares on the board
+     * @param scoreDrop how far the score must fall between iterations to
+     *                  extend the search
+     */
+    public TimeManager(long remainingMillis, long incrementMillis, int empties, long scoreDrop) {
+        Validate.isTrue(incrementMillis >= 0 && empties >= 0 && scoreDrop > 0);
+
+        long remaining = Math.max(0, remainingMillis - OVERHEAD_MILLIS);
+        int movesLeft = (empties + 1) / 2;
+
+        long target = remaining / (movesLeft + SAFETY_MOVES) + incrementMillis * 3 / 4;
+        long maximum = Math.min(MAX_FACTOR * target, remaining / 2);
+
+        this.maximumNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, maximum));
+        this.targetNanos = Math.min(maximumNanos, TimeUnit.MILLISECONDS.toNanos(Math.max(1, target)));
+        this.scoreDrop = scoreDrop;
+    }
+
+    /**
+     * Creates a time manager for {@code color}'s next move.
+     *
+     * @param clock the game clock
+     * @param color the side to move
+     * @param empties the number of empty squares on the board
+     * @return the time manager
+     */
+    public static TimeManager forMove(GameClock clock, Color color, int empties) {
+        return new TimeManager(clock.getRemainingMillis(color), clock.getIncrementMillis(), empties);
+    }
+
+    /**
+     * Narrows {@code limits} to this move's budget: the time limit becomes
+     * the maximum, if that is sooner, and this time manager is attached.
+     *
+     * @param limits the player's own limits
+     * @return the limits for this move
+     */
+    public SearchLimits apply(SearchLimits limits) {
+        return limits.toBuilder()
+                .millis(Math.min(limits.millis, getMaximumMillis()))
+                .timeManager(this)
+                .build();
+    }
+
+    /**
+     * Counts time already spent on this move, before the search that
+     * consults this time manager started, against the move's budget.
+     *
+     * @param nanos the time spent
+     */
+    public void spend(long nanos) {
+        spentNanos += nanos;
+    }
+
+    /**
+     * Called after each completed iteration of a search.
+     *
+     * @param bestMove the iteration's best move
+     * @param score the iteration's score
+     * @param elapsedNanos the time since the search started; time
+     *                     {@link #spend spent} before that is added to it
+     * @return {@code true} if the search should stop now
+     */
+    public boolean shouldStop(int bestMove, long score, long elapsedNanos) {
+        boolean scoreDropped = iterations >= 2 && score <= scores[iterations % 2] - scoreDrop;
+
+        stableIterations = bestMove == lastMove ? stableIterations + 1 : 0;
+        lastMove = bestMove;
+        scores[iterations++ % 2] = score;
+
+        long soft = targetNanos;
+        if (scoreDropped) {
+            soft = Math.min(maximumNanos, 2 * targetNanos);
+        }
+        else if (stableIterations >= STABLE_ITERATIONS) {
+            soft = targetNanos / 2;
+        }
+        return spentNanos + elapsedNanos >= soft * NEXT_ITERATION_FRACTION;
+    }
+
+    public long getTargetMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(targetNanos);
+    }
+
+    public long getMaximumMillis() {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(maximumNanos));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TimeManager{target=%d, maximum=%d}", getTargetMillis(), getMaximumMillis());
+    }
+}
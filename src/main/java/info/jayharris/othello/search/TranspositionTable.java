@@ -0,0 +1,159 @@
+package info.jayharris.othello.search;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table of search results, keyed by Zobrist key.
+ *
+ * Entries live in a single {@code long[]}, two longs each: the key XORed with
+ * the data, then the data. A reader only accepts an entry if XORing the two
+ * longs gives back its key, so an entry torn by concurrent writers is treated
+ * as a miss. That lets any number of search threads share one table without
+ * locks.
+ *
+ * Each bucket holds two entries. The first keeps the deepest result seen
+ * during the current search; the second is always replaced.
+ */
+public class TranspositionTable {
+
+    /**
+     * What a stored score means relative to the true value of the position.
+     */
+    public enum Bound {
+        LOWER, UPPER, EXACT
+    }
+
+    private static final Bound[] BOUNDS = Bound.values();
+
+    public static final int NO_MOVE = 127;
+
+    private static final int ENTRY_LONGS = 2;
+    private static final int BUCKET_LONGS = 2 * ENTRY_LONGS;
+    private static final long BYTES_PER_BUCKET = BUCKET_LONGS * Long.BYTES;
+
+    // data layout: score (32) | depth (8) | bound + 1 (2) | move (7) | generation (8)
+    private static final int DEPTH_SHIFT = 32, BOUND_SHIFT = 40, MOVE_SHIFT = 42, GENERATION_SHIFT = 49;
+
+    private final long[] table;
+    private final int bucketMask;
+    private int generation;
+
+    /**
+     * Constructor.
+     *
+     * @param megabytes the most memory the table may use. The number of
+     *                  buckets is rounded down to a power of two.
+     */
+    public TranspositionTable(int megabytes) {
+        Validate.isTrue(megabytes > 0);
+
+        long buckets = Long.highestOneBit(megabytes * 1024L * 1024L / BYTES_PER_BUCKET);
+        Validate.isTrue(buckets * BUCKET_LONGS <= Integer.MAX_VALUE - 8, "table is too large");
+
+        this.table = new long[(int) buckets * BUCKET_LONGS];
+        this.bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Marks the start of a new search, so that entries from earlier searches
+     * are replaced first. Threads that share the table in one search must
+     * call this once between them, before any of them stores.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xff;
+    }
+
+    /**
+     * Forgets every entry.
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key the position's Zobrist key
+     * @return the entry's packed data, or {@code 0} if the position isn't stored.
+     *         Unpack it with {@link #score(long)}, {@link #depth(long)},
+     *         {@link #bound(long)} and {@link #move(long)}.
+     */
+    public long probe(long key) {
+        int i = bucket(key);
+        for (int slot = 0; slot < BUCKET_LONGS; slot += ENTRY_LONGS) {
+            long data = table[i + slot + 1];
+            if ((table[i + slot] ^ data) == key && data != 0) {
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Stores the result of searching a position.
+     *
+     * @param key the position's Zobrist key
+     * @param depth the remaining depth that was searched
+     * @param bound what {@code score} means
+     * @param score the score
+     * @param move the best move found, or {@link #NO_MOVE}
+     */
+    public void store(long key, int depth, Bound bound, long score, int move) {
+        long data = (score & 0xffffffffL)
+                | ((long) Math.min(depth, 0xff) << DEPTH_SHIFT)
+                | ((long) (bound.ordinal() + 1) << BOUND_SHIFT)
+                | ((long) (move & 0x7f) << MOVE_SHIFT)
+                | ((long) generation << GENERATION_SHIFT);
+
+        int i = bucket(key);
+        long preferred = table[i + 1];
+        boolean samePosition = (table[i] ^ preferred) == key;
+
+        if (preferred == 0 || samePosition || depth >= depth(preferred) || generation(preferred) != generation) {
+            if (samePosition && move == NO_MOVE) {
+                data = (data & ~(0x7fL << MOVE_SHIFT)) | (preferred & (0x7fL << MOVE_SHIFT));
+            }
+            table[i] = key ^ data;
+            table[i + 1] = data;
+        }
+        else {
+            table[i + ENTRY_LONGS] = key ^ data;
+            table[i + ENTRY_LONGS + 1] = data;
+        }
+    }
+
+    private int bucket(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) * BUCKET_LONGS;
+    }
+
+    public static long score(long data) {
+        return (int) data;
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xff;
+    }
+
+    public static Bound bound(long data) {
+        return BOUNDS[((int) (data >>> BOUND_SHIFT) & 0x3) - 1];
+    }
+
+    public static int move(long data) {
+        return (int) (data >>> MOVE_SHIFT) & 0x7f;
+    }
+
+    static int generation(long data) {
+        return (int) (data >>> GENERATION_SHIFT) & 0xff;
+    }
+
+    /**
+     * Returns how many entries the table holds.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return table.length / ENTRY_LONGS;
+    }
+}
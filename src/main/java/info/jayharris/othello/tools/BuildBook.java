@@ -0,0 +1,44 @@
+package info.jayharris.othello.tools;
+
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.book.BookBuilder;
+import info.jayharris.othello.book.BookWriter;
+import info.jayharris.othello.heuristics.PositionalHeuristic;
+import info.jayharris.othello.search.AlphaBetaSearch;
+import info.jayharris.othello.search.SearchLimits;
+import info.jayharris.othello.search.TranspositionTable;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds an opening book with {@link BookBuilder}, scoring the leaves with
+ * {@code PositionalHeuristic} searches. Run it again with the same checkpoint
+ * to resume a build that was interrupted.
+ *
+ * Usage: {@code BuildBook [book file] [plies] [search depth] [threads] [checkpoint file]}
+ */
+public class BuildBook {
+
+    public static void main(String... args) throws Exception {
+        Path output = Paths.get(args.length > 0 ? args[0] : "book.bin");
+        int plies = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        Path checkpoint = Paths.get(args.length > 4 ? args[4] : output + ".checkpoint");
+
+        BookBuilder builder = new BookBuilder(plies,
+                () -> new AlphaBetaSearch(new PositionalHeuristic(Color.BLACK), new TranspositionTable(16)),
+                SearchLimits.depth(depth), threads, checkpoint);
+
+        long start = System.nanoTime();
+        BookWriter writer = builder.build();
+        writer.write(output);
+
+        System.out.println(String.format("%d leaves, %d resumed from %s", builder.countPositions(plies),
+                builder.getResumed(), checkpoint));
+        System.out.println(String.format("wrote %d records to %s in %d s; root score %d", writer.size(), output,
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), builder.getRootScore()));
+    }
+}
@@ -0,0 +1,75 @@
+package info.jayharris.othello.tools;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.Othello;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.Player;
+import info.jayharris.othello.heuristics.PositionalHeuristic;
+import info.jayharris.othello.players.HeuristicPlayer;
+import info.jayharris.othello.players.MonteCarloPlayer;
+import info.jayharris.othello.players.MonteCarloPlayer.Parallelism;
+import info.jayharris.othello.search.SearchLimits;
+import info.jayharris.othello.search.SearchResult;
+
+/**
+ * Compares the Monte Carlo players: for single-threaded, root-parallel and
+ * tree-parallel search, measures playouts per second from the opening and
+ * plays a match against {@code HeuristicPlayer(PositionalHeuristic)}, with
+ * colors alternating. Every player gets the same time per move.
+ *
+ * Usage: {@code MonteCarloBenchmark [millis per move] [games] [threads]}
+ */
+public class MonteCarloBenchmark {
+
+    final static String HEADER_TPL = "%-14s %12s %6s %6s %6s";
+    final static String ROW_TPL = "%-14s %12d %6d %6d %6d";
+
+    public static void main(String... args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 100;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        SearchLimits limits = SearchLimits.millis(millis);
+
+        System.out.println(String.format("%d ms per move, %d games against HeuristicPlayer(PositionalHeuristic)", millis, games));
+        System.out.println(String.format(HEADER_TPL, "search", "playouts/s", "won", "drawn", "lost"));
+
+        run("1 thread", color -> new MonteCarloPlayer(color, limits, 1, Parallelism.TREE, null), games);
+        run(threads + " root", color -> new MonteCarloPlayer(color, limits, threads, Parallelism.ROOT, null), games);
+        run(threads + " tree", color -> new MonteCarloPlayer(color, limits, threads, Parallelism.TREE, null), games);
+    }
+
+    interface PlayerFactory {
+        MonteCarloPlayer create(Color color);
+    }
+
+    static void run(String name, PlayerFactory factory, int games) {
+        MonteCarloPlayer black = factory.create(Color.BLACK), white = factory.create(Color.WHITE);
+
+        black.getMove(new Othello(black, null));
+        SearchResult speed = black.getLastResult();
+
+        int won = 0, drawn = 0, lost = 0;
+        for (int game = 0; game < games; ++game) {
+            Color color = game % 2 == 0 ? Color.BLACK : Color.WHITE;
+            Player us = color == Color.BLACK ? black : white;
+            Player them = new HeuristicPlayer(color.opposite(), new PositionalHeuristic(color.opposite()));
+            Othello othello = color == Color.BLACK ? new Othello(us, them) : new Othello(them, us);
+            othello.play();
+
+            Board board = othello.getBoard();
+            long diff = board.count(color) - board.count(color.opposite());
+            if (diff > 0) {
+                ++won;
+            }
+            else if (diff < 0) {
+                ++lost;
+            }
+            else {
+                ++drawn;
+            }
+        }
+
+        System.out.println(String.format(ROW_TPL, name, speed.nodesPerSecond(), won, drawn, lost));
+    }
+}
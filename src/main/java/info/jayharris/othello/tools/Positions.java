@@ -0,0 +1,59 @@
+package info.jayharris.othello.tools;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reproducible suites of test positions for the benchmark tools.
+ */
+public class Positions {
+
+    /**
+     * Plays random games from the starting position and keeps the position
+     * after {@code plies} moves of each. Games that end early are discarded.
+     *
+     * @param count the number of positions
+     * @param plies the number of moves to play in each game, passes excluded
+     * @param seed the random seed
+     * @return the positions, each with a legal move for the side to move
+     */
+    public static List<BoardSnapshot> random(int count, int plies, long seed) {
+        Random random = new Random(seed);
+        List<BoardSnapshot> positions = new ArrayList<>(count);
+
+        while (positions.size() < count) {
+            BoardSnapshot position = Board.init().snapshot();
+            for (int ply = 0; ply < plies && !position.isGameOver(); ++ply) {
+                if (position.legalMoves() == 0) {
+                    position = position.pass();
+                }
+                position = position.play(randomMove(position.legalMoves(), random));
+            }
+            if (position.legalMoves() == 0) {
+                position = position.pass();
+            }
+            if (!position.isGameOver()) {
+                positions.add(position);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Picks one of the moves in {@code moves}, each with equal probability.
+     *
+     * @param moves the moves, which must not be empty
+     * @param random the source of randomness
+     * @return the square index
+     */
+    public static int randomMove(long moves, Random random) {
+        for (int i = random.nextInt(Long.bitCount(moves)); i > 0; --i) {
+            moves &= moves - 1;
+        }
+        return Long.numberOfTrailingZeros(moves);
+    }
+}
@@ -0,0 +1,60 @@
+package info.jayharris.othello.tools;
+
+import info.jayharris.othello.BoardSnapshot;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.heuristics.PositionalHeuristic;
+import info.jayharris.othello.search.AlphaBetaSearch;
+import info.jayharris.othello.search.SearchLimits;
+import info.jayharris.othello.search.SearchResult;
+import info.jayharris.othello.search.TranspositionTable;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares plain alpha-beta with principal variation search, with and without
+ * aspiration windows: searches a suite of positions to a fixed depth with each
+ * and prints the nodes searched, relative to plain alpha-beta.
+ *
+ * Usage: {@code PrincipalVariationReport [depth] [positions] [table megabytes] [aspiration window]}
+ */
+public class PrincipalVariationReport {
+
+    final static String HEADER_TPL = "%-22s %10s %14s %8s %12s";
+    final static String ROW_TPL = "%-22s %10d %14d %8.3f %12d";
+
+    public static void main(String... args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int megabytes = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        long window = args.length > 3 ? Long.parseLong(args[3]) : AlphaBetaSearch.DEFAULT_ASPIRATION_WINDOW;
+
+        List<BoardSnapshot> positions = Positions.random(count, 20, 0L);
+        TranspositionTable tt = new TranspositionTable(megabytes);
+
+        System.out.println(String.format("%d positions, depth %d", positions.size(), depth));
+        System.out.println(String.format(HEADER_TPL, "search", "ms", "nodes", "ratio", "nodes/s"));
+
+        String[] names = { "alpha-beta", "pvs", "pvs + aspiration" };
+        long baseline = 0;
+        for (int config = 0; config < names.length; ++config) {
+            AlphaBetaSearch search = new AlphaBetaSearch(new PositionalHeuristic(Color.BLACK), tt);
+            search.setPrincipalVariation(config > 0);
+            search.setAspirationWindow(config > 1 ? window : 0);
+
+            long nanos = 0, nodes = 0;
+            for (BoardSnapshot position : positions) {
+                tt.clear();
+                SearchResult result = search.search(position.toBoard(), position.getSideToMove(), SearchLimits.depth(depth));
+                nanos += result.nanos;
+                nodes += result.nodes;
+            }
+
+            if (config == 0) {
+                baseline = nodes;
+            }
+            System.out.println(String.format(ROW_TPL, names[config], TimeUnit.NANOSECONDS.toMillis(nanos),
+                    nodes, (double) nodes / baseline, nodes * TimeUnit.SECONDS.toNanos(1) / Math.max(1, nanos)));
+        }
+    }
+}
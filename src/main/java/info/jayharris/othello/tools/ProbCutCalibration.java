@@ -0,0 +1,89 @@
+package info.jayharris.othello.tools;
+
+import info.jayharris.othello.BoardSnapshot;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.heuristics.PositionalHeuristic;
+import info.jayharris.othello.search.AlphaBetaSearch;
+import info.jayharris.othello.search.ProbCut;
+import info.jayharris.othello.search.SearchLimits;
+import info.jayharris.othello.search.SearchResult;
+import info.jayharris.othello.search.TranspositionTable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fits the {@link ProbCut} parameters for {@code PositionalHeuristic}:
+ * searches positions from every stage of the game to each depth up to the
+ * maximum, regresses each deep score on the shallow scores it would be
+ * pruned by, and writes the fits to a file.
+ *
+ * Usage: {@code ProbCutCalibration [output file] [positions] [max depth]}
+ */
+public class ProbCutCalibration {
+
+    /** A fit needs at least this many positions to be used. */
+    public static final int MIN_SAMPLES = 30;
+
+    final static String ROW_TPL = "stage %d, depth %2d from %d: slope %.3f, intercept %7.2f, sigma %6.2f (%d positions)";
+
+    public static void main(String... args) throws IOException {
+        Path output = Paths.get(args.length > 0 ? args[0] : "probcut.txt");
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 1200;
+        int maxDepth = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        // spread the positions evenly over the game, from 4 to 60 discs
+        List<BoardSnapshot> positions = new ArrayList<>(count);
+        int plies = 56, perPly = Math.max(1, count / plies);
+        for (int ply = 0; ply < plies; ++ply) {
+            positions.addAll(Positions.random(perPly, ply, ply));
+        }
+
+        ProbCut.Fit[][][] fits = new ProbCut.Fit[ProbCut.STAGES][maxDepth + 1][maxDepth + 1];
+        AlphaBetaSearch search = new AlphaBetaSearch(new PositionalHeuristic(Color.BLACK), new TranspositionTable(16));
+        long[] scores = new long[maxDepth + 1];
+
+        for (BoardSnapshot position : positions) {
+            int stage = ProbCut.stage(position.count(Color.BLACK) + position.count(Color.WHITE));
+            int depth = 0;
+            while (depth < maxDepth) {
+                SearchResult result = search.search(position.toBoard(), position.getSideToMove(),
+                        SearchLimits.depth(depth + 1));
+                if (result.depth != depth + 1 || Math.abs(result.score) > AlphaBetaSearch.WIN_SCORE) {
+                    break;
+                }
+                scores[++depth] = result.score;
+            }
+
+            for (int deep = ProbCut.MIN_DEPTH; deep <= depth; ++deep) {
+                for (int shallow : ProbCut.shallowDepths(deep)) {
+                    if (fits[stage][deep][shallow] == null) {
+                        fits[stage][deep][shallow] = new ProbCut.Fit();
+                    }
+                    fits[stage][deep][shallow].add(scores[shallow], scores[deep]);
+                }
+            }
+        }
+
+        ProbCut probCut = new ProbCut();
+        for (int stage = 0; stage < ProbCut.STAGES; ++stage) {
+            for (int deep = 0; deep <= maxDepth; ++deep) {
+                for (int shallow = 0; shallow <= maxDepth; ++shallow) {
+                    ProbCut.Fit fit = fits[stage][deep][shallow];
+                    if (fit == null || fit.getSamples() < MIN_SAMPLES || !(fit.slope() > 0)) {
+                        continue;
+                    }
+
+                    probCut.set(stage, deep, shallow, fit.slope(), fit.intercept(), fit.sigma());
+                    System.out.println(String.format(ROW_TPL, stage, deep, shallow,
+                            fit.slope(), fit.intercept(), fit.sigma(), fit.getSamples()));
+                }
+            }
+        }
+        probCut.save(output);
+        System.out.println("wrote " + output);
+    }
+}
@@ -0,0 +1,127 @@
+package info.jayharris.othello.tools;
+
+import info.jayharris.othello.BoardSnapshot;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.heuristics.PositionalHeuristic;
+import info.jayharris.othello.search.AlphaBetaSearch;
+import info.jayharris.othello.search.ProbCut;
+import info.jayharris.othello.search.SearchLimits;
+import info.jayharris.othello.search.SearchResult;
+import info.jayharris.othello.search.TranspositionTable;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what Multi-ProbCut buys: searches a suite of positions to a fixed
+ * depth with and without pruning, printing the time to depth and how often
+ * both choose the same move, then plays the two against each other at that
+ * depth, or with ProbCut a little deeper, from random openings, each opening
+ * once with each color.
+ *
+ * Usage: {@code ProbCutReport [parameter file] [depth] [positions] [games] [threshold] [ProbCut match depth]}
+ */
+public class ProbCutReport {
+
+    final static String HEADER_TPL = "%-10s %10s %14s %12s %10s";
+    final static String ROW_TPL = "%-10s %10d %14d %12d %9.1f%%";
+
+    public static void main(String... args) throws IOException {
+        ProbCut probCut = ProbCut.load(Paths.get(args.length > 0 ? args[0] : "probcut.txt"));
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int count = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+        int games = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        if (args.length > 4) {
+            probCut.setThreshold(Double.parseDouble(args[4]));
+        }
+        int matchDepth = args.length > 5 ? Integer.parseInt(args[5]) : depth;
+
+        List<BoardSnapshot> positions = Positions.random(count, 20, 1L);
+        TranspositionTable tt = new TranspositionTable(64);
+        AlphaBetaSearch plain = newSearch(tt, null), pruning = newSearch(tt, probCut);
+
+        System.out.println(String.format("%d positions, depth %d, threshold %.2f", positions.size(), depth,
+                probCut.getThreshold()));
+        System.out.println(String.format(HEADER_TPL, "search", "ms", "nodes", "nodes/s", "same move"));
+
+        int[] moves = new int[positions.size()];
+        for (AlphaBetaSearch search : new AlphaBetaSearch[] { plain, pruning }) {
+            long nanos = 0, nodes = 0;
+            int same = 0;
+            for (int i = 0; i < positions.size(); ++i) {
+                BoardSnapshot position = positions.get(i);
+                tt.clear();
+                SearchResult result = search.search(position.toBoard(), position.getSideToMove(), SearchLimits.depth(depth));
+                nanos += result.nanos;
+                nodes += result.nodes;
+                if (search == plain) {
+                    moves[i] = result.move;
+                }
+                same += moves[i] == result.move ? 1 : 0;
+            }
+
+            System.out.println(String.format(ROW_TPL, search == plain ? "alpha-beta" : "probcut",
+                    TimeUnit.NANOSECONDS.toMillis(nanos), nodes, nodes * TimeUnit.SECONDS.toNanos(1) / Math.max(1, nanos),
+                    100.0 * same / positions.size()));
+        }
+
+        // a match from openings 8 plies deep, each side with its own table
+        plain = newSearch(new TranspositionTable(64), null);
+        pruning = newSearch(new TranspositionTable(64), probCut);
+
+        int won = 0, drawn = 0, lost = 0;
+        long discs = 0, plainNanos = 0, pruningNanos = 0;
+        for (BoardSnapshot opening : Positions.random((games + 1) / 2, 8, 2L)) {
+            for (Color color : Color.values()) {
+                long[] nanos = new long[2];
+                long diff = play(opening, color, pruning, SearchLimits.depth(matchDepth),
+                        plain, SearchLimits.depth(depth), nanos);
+                pruningNanos += nanos[0];
+                plainNanos += nanos[1];
+                discs += diff;
+                if (diff > 0) {
+                    ++won;
+                }
+                else if (diff < 0) {
+                    ++lost;
+                }
+                else {
+                    ++drawn;
+                }
+            }
+        }
+        System.out.println(String.format("probcut at depth %d against alpha-beta at depth %d: " +
+                "%d won, %d drawn, %d lost, %+.1f discs per game, %d ms against %d ms",
+                matchDepth, depth, won, drawn, lost, (double) discs / (won + drawn + lost),
+                TimeUnit.NANOSECONDS.toMillis(pruningNanos), TimeUnit.NANOSECONDS.toMillis(plainNanos)));
+    }
+
+    static AlphaBetaSearch newSearch(TranspositionTable tt, ProbCut probCut) {
+        AlphaBetaSearch search = new AlphaBetaSearch(new PositionalHeuristic(Color.BLACK), tt);
+        search.setProbCut(probCut);
+        return search;
+    }
+
+    /**
+     * Plays a game from {@code opening} and returns its final disc
+     * differential for {@code color}, which {@code us} plays. Each side's
+     * total search time is added to {@code nanos}, ours first.
+     */
+    static long play(BoardSnapshot opening, Color color, AlphaBetaSearch us, SearchLimits ourLimits,
+                     AlphaBetaSearch them, SearchLimits theirLimits, long[] nanos) {
+        BoardSnapshot position = opening;
+        while (!position.isGameOver()) {
+            if (position.legalMoves() == 0) {
+                position = position.pass();
+            }
+            Color side = position.getSideToMove();
+            SearchResult result = side == color ?
+                    us.search(position.toBoard(), side, ourLimits) : them.search(position.toBoard(), side, theirLimits);
+            nanos[side == color ? 0 : 1] += result.nanos;
+            position = position.play(result.move);
+        }
+        return position.count(color) - position.count(color.opposite());
+    }
+}
@@ -0,0 +1,62 @@
+package info.jayharris.othello.tools;
+
+import info.jayharris.othello.BoardSnapshot;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.heuristics.PositionalHeuristic;
+import info.jayharris.othello.search.ParallelSearch;
+import info.jayharris.othello.search.SearchLimits;
+import info.jayharris.othello.search.SearchResult;
+import info.jayharris.othello.search.TranspositionTable;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link ParallelSearch} scales: searches a suite of positions to
+ * a fixed depth with 1, 2, 4, ... threads and prints the speedup over one
+ * thread.
+ *
+ * Usage: {@code ScalingReport [depth] [max threads] [positions] [table megabytes]}
+ */
+public class ScalingReport {
+
+    final static String HEADER_TPL = "%7s %10s %8s %14s %12s";
+    final static String ROW_TPL = "%7d %10d %8.2f %14d %12d";
+
+    public static void main(String... args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int count = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        int megabytes = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+
+        List<BoardSnapshot> positions = Positions.random(count, 20, 0L);
+        TranspositionTable tt = new TranspositionTable(megabytes);
+
+        System.out.println(String.format("%d positions, depth %d", positions.size(), depth));
+        System.out.println(String.format(HEADER_TPL, "threads", "ms", "speedup", "nodes", "nodes/s"));
+
+        long baseline = 0;
+        for (int threads = 1; ; threads = Math.min(2 * threads, maxThreads)) {
+            ParallelSearch search = new ParallelSearch(new PositionalHeuristic(Color.BLACK), tt, threads);
+            long nanos = 0, nodes = 0;
+
+            for (BoardSnapshot position : positions) {
+                tt.clear();
+                SearchResult result = search.search(position.toBoard(), position.getSideToMove(), SearchLimits.depth(depth));
+                nanos += result.nanos;
+                nodes += result.nodes;
+            }
+            search.shutdown();
+
+            if (threads == 1) {
+                baseline = nanos;
+            }
+            System.out.println(String.format(ROW_TPL, threads, TimeUnit.NANOSECONDS.toMillis(nanos),
+                    (double) baseline / nanos, nodes, nodes * TimeUnit.SECONDS.toNanos(1) / nanos));
+
+            if (threads == maxThreads) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package info.jayharris.othello;
+
+import info.jayharris.othello.Board.Square;
+import info.jayharris.othello.Othello.Color;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BitboardsTest {
+
+    private static long mask(Board board, Color color) {
+        long mask = 0L;
+        for (Square square : board.getOccupied()) {
+            if (square.getColor() == color) {
+                mask |= Bitboards.bit(square.RANK, square.FILE);
+            }
+        }
+        return mask;
+    }
+
+    @Test
+    @DisplayName("generates the opening moves")
+    void testLegalMovesOpening() throws Exception {
+        Board board = BoardFactory.getFactory().newGame();
+
+        long moves = Bitboards.legalMoves(mask(board, Color.BLACK), mask(board, Color.WHITE));
+
+        assertThat(moves).isEqualTo(
+                Bitboards.bit(2, 3) | Bitboards.bit(3, 2) | Bitboards.bit(4, 5) | Bitboards.bit(5, 4));
+    }
+
+    @Test
+    @DisplayName("generates the same moves as checking every square")
+    void testLegalMovesMatchesIsLegalMove() throws Exception {
+        Board board = BoardFactory.getFactory().fromString(
+                "   www  " +
+                "  bwwb b" +
+                "wbwwwwbb" +
+                "wwwwbwbb" +
+                "wwwbwwbb" +
+                "wwwwwbbb" +
+                "  bbbbbb" +
+                " bbbbbbb"
+        );
+
+        for (Color color : Color.values()) {
+            long expected = 0L;
+            for (int rank = 0; rank < Board.SIZE; ++rank) {
+                for (int file = 0; file < Board.SIZE; ++file) {
+                    if (board.getSquare(rank, file).isLegalMove(color)) {
+                        expected |= Bitboards.bit(rank, file);
+                    }
+                }
+            }
+
+            long own = mask(board, color), opp = mask(board, color.opposite());
+            assertThat(Bitboards.legalMoves(own, opp)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("flips every bracketed line and nothing else")
+    void testFlips() throws Exception {
+        Board board = BoardFactory.getFactory().fromString(
+                "        " +
+                "   w    " +
+                "  bww   " +
+                "  bwb   " +
+                "  wwbb  " +
+                "  w wb  " +
+                "        " +
+                "        "
+        );
+
+        long flipped = Bitboards.flips(1 * Board.SIZE + 4, mask(board, Color.BLACK), mask(board, Color.WHITE));
+
+        assertThat(flipped).isEqualTo(Bitboards.bit(2, 3) | Bitboards.bit(2, 4));
+    }
+
+    @Test
+    @DisplayName("doesn't wrap around the edge of the board")
+    void testNoWrap() throws Exception {
+        Board board = BoardFactory.getFactory().fromString(
+                "       w" +
+                "b       " +
+                "        " +
+                "        " +
+                "        " +
+                "        " +
+                "        " +
+                "        "
+        );
+
+        long own = mask(board, Color.BLACK), opp = mask(board, Color.WHITE);
+
+        assertThat(Bitboards.legalMoves(own, opp) & Bitboards.bit(0, 6)).isZero();
+        assertThat(Bitboards.flips(6, own, opp)).isZero();
+    }
+
+    @Test
+    @DisplayName("iterates over set bits from lowest to highest")
+    void testSquareIterator() throws Exception {
+        Bitboards.SquareIterator iter = new Bitboards.SquareIterator(
+                Bitboards.bit(0) | Bitboards.bit(17) | Bitboards.bit(63));
+
+        assertThat(iter.nextInt()).isEqualTo(0);
+        assertThat(iter.nextInt()).isEqualTo(17);
+        assertThat(iter.nextInt()).isEqualTo(63);
+        assertThat(iter.hasNext()).isFalse();
+
+        assertThat(iter.reset(Bitboards.bit(5)).nextInt()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("transforms boards by each of the eight symmetries")
+    void testSymmetries() throws Exception {
+        long board = 0x0000_1c3c_0810_0001L | Bitboards.bit(0, 6);
+        Set<Long> images = new HashSet<>();
+
+        for (int s = 0; s < Bitboards.SYMMETRIES; ++s) {
+            long expected = 0L;
+            for (int square = 0; square < 64; ++square) {
+                if ((board & Bitboards.bit(square)) != 0) {
+                    int rank = square / 8, file = square % 8;
+                    if ((s & 1) != 0) {
+                        rank = 7 - rank;
+                    }
+                    if ((s & 2) != 0) {
+                        file = 7 - file;
+                    }
+                    if ((s & 4) != 0) {
+                        int t = rank;
+                        rank = file;
+                        file = t;
+                    }
+                    expected |= Bitboards.bit(rank, file);
+                }
+            }
+
+            long transformed = Bitboards.transform(board, s);
+            assertThat(transformed).isEqualTo(expected);
+            assertThat(Bitboards.untransform(transformed, s)).isEqualTo(board);
+            images.add(transformed);
+        }
+        assertThat(images).hasSize(Bitboards.SYMMETRIES);
+    }
+}
@@ -0,0 +1,57 @@
+package info.jayharris.othello;
+
+import info.jayharris.othello.Othello.Color;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static info.jayharris.othello.BoardAssert.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+public class BoardSnapshotTest {
+
+    @Test
+    @DisplayName("playing a move returns a new snapshot and leaves the original alone")
+    void testPlay() throws Exception {
+        Board board = BoardFactory.getFactory().newGame();
+        BoardSnapshot snapshot = board.snapshot();
+
+        BoardSnapshot next = snapshot.play(board.getSquare('d', 3));
+        board.play(board.getSquare('d', 3), Color.BLACK);
+
+        assertThat(snapshot).isEqualTo(BoardFactory.getFactory().newGame().snapshot());
+        assertThat(next).isEqualTo(board.snapshot());
+        assertThat(next.getSideToMove()).isEqualTo(Color.WHITE);
+        assertThat(next.getZobristKey()).isEqualTo(board.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("converts back to an equal board")
+    void testToBoard() throws Exception {
+        Board board = BoardFactory.getFactory().fromString(
+                "        " +
+                "   w    " +
+                "  bww   " +
+                "  bwb   " +
+                "  wwbb  " +
+                "  w wb  " +
+                "        " +
+                "        "
+        );
+
+        Board copy = board.snapshot().toBoard();
+
+        assertThat(copy).matches(board);
+        assertThat(copy).isEqualTo(board);
+        assertThat(copy.legalMoves(Color.WHITE)).isEqualTo(board.legalMoves(Color.WHITE));
+    }
+
+    @Test
+    @DisplayName("should fail if given an illegal move")
+    void testFailOnIllegalMove() throws Exception {
+        BoardSnapshot snapshot = BoardFactory.getFactory().newGame().snapshot();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> snapshot.play(0));
+        assertThatIllegalArgumentException().isThrownBy(() -> snapshot.play(3 * Board.SIZE + 3));
+    }
+}
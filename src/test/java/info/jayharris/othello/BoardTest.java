@@ -176,6 +176,76 @@ public class BoardTest {
         }
     }
 
+    @Nested
+    @DisplayName("#play and #undo")
+    class PlayAndUndo {
+
+        Board board;
+
+        @BeforeEach
+        void init() throws Exception {
+            board = BoardFactory.getFactory().fromString(
+                    "        " +
+                    "   w    " +
+                    "  bww   " +
+                    "  bwb   " +
+                    "  wwbb  " +
+                    "  w wb  " +
+                    "        " +
+                    "        "
+            );
+        }
+
+        @Test
+        @DisplayName("records the square played and the discs flipped")
+        void testPlayReturnsMove() throws Exception {
+            Board.Move move = board.play(board.getSquare('e', 2), Color.BLACK);
+
+            assertThat(move.index).isEqualTo(1 * Board.SIZE + 4);
+            assertThat(move.flipped).isEqualTo(Bitboards.bit(2, 3) | Bitboards.bit(2, 4));
+            assertThat(move.color).isEqualTo(Color.BLACK);
+        }
+
+        @Test
+        @DisplayName("restores the original board")
+        void testUndoRestoresBoard() throws Exception {
+            Board.Move first = board.play(board.getSquare('e', 2), Color.BLACK);
+            Board.Move second = board.play(board.getSquare('f', 2), Color.WHITE);
+
+            board.undo(second);
+            board.undo(first);
+
+            assertThat(board).matches(BoardFactory.getFactory().fromString(
+                    "        " +
+                    "   w    " +
+                    "  bww   " +
+                    "  bwb   " +
+                    "  wwbb  " +
+                    "  w wb  " +
+                    "        " +
+                    "        "
+            ));
+        }
+
+        @Test
+        @DisplayName("#getFlips returns the discs a move would flip without playing it")
+        void testGetFlips() throws Exception {
+            long key = board.getZobristKey();
+
+            assertThat(board.getFlips(board.getSquare('e', 2), Color.BLACK))
+                    .isEqualTo(Bitboards.bit(2, 3) | Bitboards.bit(2, 4));
+            assertThat(board.getFlips(board.getSquare('d', 3), Color.BLACK)).isZero();
+            assertThat(board.getZobristKey()).isEqualTo(key);
+        }
+
+        @Test
+        @DisplayName("should fail if given an illegal move")
+        void testFailOnIllegalMove() throws Exception {
+            Square move = board.getSquare('d', 3);
+            assertThatIllegalArgumentException().isThrownBy(() -> board.play(move, Color.BLACK));
+        }
+    }
+
     @Test
     @DisplayName("should tell if the player has any legal moves")
     void testHasMoveFor() throws Exception {
@@ -215,6 +285,61 @@ public class BoardTest {
         assertTrue(board.hasMoveFor(black));
     }
 
+    @Test
+    @DisplayName("should get the legal moves as a mask")
+    void testLegalMoves() throws Exception {
+        Board board = BoardFactory.getFactory().newGame();
+
+        assertThat(board.legalMoves(Color.BLACK)).isEqualTo(
+                Bitboards.bit(2, 3) | Bitboards.bit(3, 2) | Bitboards.bit(4, 5) | Bitboards.bit(5, 4));
+        assertThat(board.getSquares(board.legalMoves(Color.WHITE))).containsOnly(
+                board.getSquare('e', 3),
+                board.getSquare('f', 4),
+                board.getSquare('c', 5),
+                board.getSquare('d', 6)
+        );
+    }
+
+    @Test
+    @DisplayName("should recompute the legal moves after the board changes")
+    void testLegalMovesInvalidated() throws Exception {
+        Board board = BoardFactory.getFactory().newGame();
+        long black = board.legalMoves(Color.BLACK), white = board.legalMoves(Color.WHITE);
+
+        Board.Move move = board.play(board.getSquare('d', 3), Color.BLACK);
+
+        assertThat(board.legalMoves(Color.WHITE)).isEqualTo(
+                Bitboards.bit(2, 2) | Bitboards.bit(2, 4) | Bitboards.bit(4, 2));
+        assertThat(board.getSquare('d', 3).isLegalMove(Color.BLACK)).isFalse();
+
+        board.undo(move);
+
+        assertThat(board.legalMoves(Color.BLACK)).isEqualTo(black);
+        assertThat(board.legalMoves(Color.WHITE)).isEqualTo(white);
+        assertThat(board.getSquare('d', 3).isLegalMove(Color.BLACK)).isTrue();
+    }
+
+    @Test
+    @DisplayName("should count discs, empty squares and frontier discs")
+    void testCounts() throws Exception {
+        Board board = BoardFactory.getFactory().fromString(
+                "wwwwwwww" +
+                "wwwwwwww" +
+                "wwwwwwww" +
+                "wwwwwww " +
+                "wwwwww  " +
+                "wwwwww b" +
+                "wwwwwww " +
+                "wwwwwwww"
+        );
+
+        assertEquals(58, board.count(Color.WHITE));
+        assertEquals(1, board.count(Color.BLACK));
+        assertEquals(5, board.countEmpty());
+        assertEquals(10, board.countFrontier(Color.WHITE));
+        assertEquals(1, board.countFrontier(Color.BLACK));
+    }
+
     @Test
     @DisplayName("should get the square's neighbors")
     void testGetNeighbors() throws Exception {
@@ -282,6 +407,45 @@ public class BoardTest {
         assertEquals(aBoard, anotherBoard);
     }
 
+    @Test
+    @DisplayName("boards with the same discs but different sides to move should not be #equals")
+    void testNotEqualsSideToMove() throws Exception {
+        Board aBoard = BoardFactory.getFactory().newGame(),
+                anotherBoard = BoardFactory.getFactory().newGame();
+
+        anotherBoard.pass();
+
+        assertNotEquals(aBoard, anotherBoard);
+        assertNotEquals(aBoard.getZobristKey(), anotherBoard.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("the Zobrist key is the same however the position was reached")
+    void testZobristKeyIsIncremental() throws Exception {
+        Board board = BoardFactory.getFactory().newGame();
+        long original = board.getZobristKey();
+
+        Board.Move first = board.play(board.getSquare('d', 3), Color.BLACK);
+        Board.Move second = board.play(board.getSquare('c', 3), Color.WHITE);
+
+        assertEquals(Zobrist.key(mask(board, Color.BLACK), mask(board, Color.WHITE), Color.BLACK),
+                board.getZobristKey());
+        assertEquals(Board.deepCopy(board).getZobristKey(), board.getZobristKey());
+
+        board.undo(second);
+        board.undo(first);
+
+        assertEquals(original, board.getZobristKey());
+        assertEquals(BoardFactory.getFactory().newGame(), board);
+    }
+
+    private static long mask(Board board, Color color) {
+        return board.getOccupied().stream()
+                .filter(square -> square.getColor() == color)
+                .mapToLong(square -> Bitboards.bit(square.RANK, square.FILE))
+                .reduce(0L, (a, b) -> a | b);
+    }
+
     @Test
     @DisplayName("two #equals boards should return the same #hashCode")
     void testHashCode() throws Exception {
@@ -0,0 +1,30 @@
+package info.jayharris.othello;
+
+import info.jayharris.othello.BoardUtils.Direction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BoardUtilsTest {
+
+    @Test
+    @DisplayName("rays run from the square to the edge of the board, nearest first")
+    void testRay() throws Exception {
+        assertThat(BoardUtils.ray(0, Direction.SE)).containsExactly(9, 18, 27, 36, 45, 54, 63);
+        assertThat(BoardUtils.ray(3 * Board.SIZE + 1, Direction.W)).containsExactly(3 * Board.SIZE);
+        assertThat(BoardUtils.ray(7, Direction.NE)).isEmpty();
+        assertThat(BoardUtils.step(7, Direction.E)).isEqualTo(-1);
+        assertThat(BoardUtils.rayMask(0, Direction.S)).isEqualTo(0x0101010101010100L);
+    }
+
+    @Test
+    @DisplayName("finds the opponent's discs bracketed by our disc")
+    void testBracketed() throws Exception {
+        long own = Bitboards.bit(0, 4), opp = Bitboards.bit(0, 2) | Bitboards.bit(0, 3);
+
+        assertThat(BoardUtils.bracketed(1, Direction.E, own, opp)).isEqualTo(opp);
+        assertThat(BoardUtils.bracketed(1, Direction.E, 0L, opp)).isZero();
+        assertThat(BoardUtils.bracketed(5, Direction.W, own, opp)).isZero();
+    }
+}
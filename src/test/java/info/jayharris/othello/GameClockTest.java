@@ -0,0 +1,54 @@
+package info.jayharris.othello;
+
+import info.jayharris.othello.Othello.Color;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GameClockTest {
+
+    @Test
+    @DisplayName("runs down only the clock of the side to move")
+    void testRunsDown() throws Exception {
+        GameClock clock = new GameClock(10_000);
+
+        clock.start(Color.BLACK);
+        Thread.sleep(50);
+        assertThat(clock.getRemainingMillis(Color.BLACK)).isLessThanOrEqualTo(9_950);
+        clock.stop(Color.BLACK);
+
+        long black = clock.getRemainingMillis(Color.BLACK);
+        Thread.sleep(20);
+        assertThat(clock.getRemainingMillis(Color.BLACK)).isEqualTo(black);
+        assertThat(clock.getRemainingMillis(Color.WHITE)).isEqualTo(10_000);
+    }
+
+    @Test
+    @DisplayName("adds the increment after each move, unless the time has run out")
+    void testIncrement() throws Exception {
+        GameClock clock = new GameClock(30, 1_000);
+
+        clock.start(Color.WHITE);
+        clock.stop(Color.WHITE);
+        assertThat(clock.getRemainingMillis(Color.WHITE)).isBetween(900L, 1_030L);
+
+        clock = new GameClock(10, 1_000);
+        clock.start(Color.BLACK);
+        Thread.sleep(30);
+        clock.stop(Color.BLACK);
+        assertThat(clock.hasExpired(Color.BLACK)).isTrue();
+        assertThat(clock.hasExpired(Color.WHITE)).isFalse();
+    }
+
+    @Test
+    @DisplayName("runs one clock at a time")
+    void testOneAtATime() throws Exception {
+        GameClock clock = new GameClock(1_000);
+        clock.start(Color.BLACK);
+
+        assertThatThrownBy(() -> clock.start(Color.WHITE)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> clock.stop(Color.WHITE)).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -125,6 +125,18 @@ class OthelloTest {
 
             verify(black).fail(same(othello), any(IllegalArgumentException.class));
         }
+
+        @Test
+        @DisplayName("stops the clock when the player throws")
+        void testNextPlyThrows() throws Exception {
+            othello = new Othello(black, white, new GameClock(60_000));
+            when(black.getMove(othello))
+                    .thenThrow(new IllegalStateException())
+                    .thenReturn(othello.getBoard().getSquare('c', 4));
+
+            Assertions.assertThatThrownBy(() -> othello.nextPly(black)).isInstanceOf(IllegalStateException.class);
+            Assertions.assertThat(othello.nextPly(black)).isSameAs(white);
+        }
     }
 
     // TODO: should be moved to NextPly class
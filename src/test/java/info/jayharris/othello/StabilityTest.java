@@ -0,0 +1,105 @@
+package info.jayharris.othello;
+
+import info.jayharris.othello.Othello.Color;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StabilityTest {
+
+    private static long stable(Board board) {
+        return Stability.stableDiscs(board.getDiscs(Color.BLACK), board.getDiscs(Color.WHITE));
+    }
+
+    @Test
+    @DisplayName("finds no stable discs at the start of the game")
+    void testOpening() throws Exception {
+        assertThat(stable(Board.init())).isEqualTo(Bitboards.EMPTY);
+    }
+
+    @Test
+    @DisplayName("finds every disc stable on a full board")
+    void testFullBoard() throws Exception {
+        SplittableRandom random = new SplittableRandom(5);
+        long black = random.nextLong();
+
+        assertThat(Stability.stableDiscs(black, ~black)).isEqualTo(Bitboards.FULL);
+    }
+
+    @Test
+    @DisplayName("finds stable discs on the edges")
+    void testEdges() throws Exception {
+        Board board = BoardFactory.getFactory().fromString(
+                "bbw    w" +
+                "        " +
+                "   bw   " +
+                "   wb   " +
+                "        " +
+                "        " +
+                "b       " +
+                "bwwwwwwb"
+        );
+
+        // a1 and b1 are anchored by the corner, but c1 can be bracketed from
+        // d1; the full bottom edge can't change, and a7 sits on a8
+        assertThat(stable(board)).isEqualTo(Bitboards.bit(0, 0) | Bitboards.bit(0, 1) | Bitboards.bit(0, 7)
+                | Bitboards.bit(6, 0) | 0xff00000000000000L);
+    }
+
+    @Test
+    @DisplayName("finds discs anchored by full lines and stable neighbors")
+    void testInterior() throws Exception {
+        Board board = BoardFactory.getFactory().fromString(
+                "bbbbbbbb" +
+                "bbbbbbbb" +
+                "bbw     " +
+                "        " +
+                "        " +
+                "        " +
+                "        " +
+                "        "
+        );
+
+        long stable = stable(board);
+        // the top two ranks are full, and every disc on them is walled in or
+        // next to another stable disc along each line
+        assertThat(stable & 0xffffL).isEqualTo(0xffffL);
+        assertThat(stable & Bitboards.bit(2, 0)).isNotZero();
+        assertThat(stable & Bitboards.bit(2, 2)).isZero();
+    }
+
+    @Test
+    @DisplayName("never calls a disc stable that is later flipped")
+    void testSoundness() throws Exception {
+        SplittableRandom random = new SplittableRandom(11);
+
+        for (int game = 0; game < 200; ++game) {
+            Board board = Board.init();
+            long black = 0L, white = 0L;
+            Color color = Color.BLACK;
+
+            while (board.legalMoves(Color.BLACK) != 0 || board.legalMoves(Color.WHITE) != 0) {
+                long legal = board.legalMoves(color);
+                if (legal != 0) {
+                    for (int skip = random.nextInt(Long.bitCount(legal)); skip > 0; --skip) {
+                        legal &= legal - 1;
+                    }
+                    board.play(Long.numberOfTrailingZeros(legal), color);
+
+                    assertThat(board.getDiscs(Color.BLACK) & black).isEqualTo(black);
+                    assertThat(board.getDiscs(Color.WHITE) & white).isEqualTo(white);
+
+                    long stable = stable(board);
+                    assertThat(stable & black).isEqualTo(black);
+                    assertThat(stable & white).isEqualTo(white);
+                    black = stable & board.getDiscs(Color.BLACK);
+                    white = stable & board.getDiscs(Color.WHITE);
+                }
+                color = color.opposite();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package info.jayharris.othello.book;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardSnapshot;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.heuristics.PositionalHeuristic;
+import info.jayharris.othello.search.AlphaBetaSearch;
+import info.jayharris.othello.search.Search;
+import info.jayharris.othello.search.SearchLimits;
+import info.jayharris.othello.search.SearchResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookBuilderTest {
+
+    Path checkpoint, book;
+    AtomicInteger searches;
+    Supplier<Search> factory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        checkpoint = Files.createTempFile("book", ".checkpoint");
+        Files.delete(checkpoint);
+        book = Files.createTempFile("book", ".bin");
+
+        searches = new AtomicInteger();
+        factory = () -> new AlphaBetaSearch(new PositionalHeuristic(Color.BLACK)) {
+            @Override
+            public SearchResult search(Board board, Color color, SearchLimits limits) {
+                searches.incrementAndGet();
+                return super.search(board, color, limits);
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(checkpoint);
+        Files.deleteIfExists(book);
+    }
+
+    @Test
+    @DisplayName("backs the leaf scores up to the root by negamax")
+    void testNegamax() throws Exception {
+        SearchLimits limits = SearchLimits.depth(2);
+        BookBuilder builder = new BookBuilder(3, factory, limits, 2, null);
+        builder.build().write(book);
+        OpeningBook opening = OpeningBook.open(book);
+
+        BoardSnapshot root = Board.init().snapshot();
+        AlphaBetaSearch search = new AlphaBetaSearch(new PositionalHeuristic(Color.BLACK));
+
+        assertThat(builder.countPositions(1)).isEqualTo(1);     // the four opening moves are symmetric
+        assertThat(builder.getRootScore()).isEqualTo(negamax(search, root, 3, limits));
+        assertThat(root.legalMoves() & (1L << opening.probe(root))).isNotZero();
+    }
+
+    static int negamax(AlphaBetaSearch search, BoardSnapshot position, int plies, SearchLimits limits) {
+        if (plies == 0) {
+            return (int) search.search(position.toBoard(), position.getSideToMove(), limits).score;
+        }
+
+        int best = Integer.MIN_VALUE;
+        for (long moves = position.legalMoves(); moves != 0; moves &= moves - 1) {
+            BoardSnapshot child = BookBuilder.child(position, Long.numberOfTrailingZeros(moves));
+            int score = negamax(search, child, plies - 1, limits);
+            best = Math.max(best, child.getSideToMove() == position.getSideToMove() ? score : -score);
+        }
+        return best;
+    }
+
+    @Test
+    @DisplayName("resumes from its checkpoint without searching finished leaves again")
+    void testResume() throws Exception {
+        BookBuilder first = new BookBuilder(3, factory, SearchLimits.depth(2), 2, checkpoint);
+        first.build();
+        int leaves = first.countPositions(3);
+        assertThat(searches.get()).isEqualTo(leaves);
+
+        // a crash in the middle of a record leaves part of it behind
+        Files.write(checkpoint, new byte[] { 1, 2, 3, 4, 5 }, StandardOpenOption.APPEND);
+
+        searches.set(0);
+        BookBuilder second = new BookBuilder(4, factory, SearchLimits.depth(2), 2, checkpoint);
+        second.build();
+
+        assertThat(second.getResumed()).isEqualTo(leaves);
+        assertThat(searches.get()).isEqualTo(second.countPositions(4));
+        assertThat(Files.size(checkpoint) % 12).isZero();
+
+        searches.set(0);
+        BookBuilder third = new BookBuilder(4, factory, SearchLimits.depth(2), 2, checkpoint);
+        third.build();
+
+        assertThat(searches.get()).isZero();
+        assertThat(third.getRootScore()).isEqualTo(second.getRootScore());
+    }
+}
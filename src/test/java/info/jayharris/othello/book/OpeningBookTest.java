@@ -0,0 +1,102 @@
+package info.jayharris.othello.book;
+
+import info.jayharris.othello.Bitboards;
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardSnapshot;
+import info.jayharris.othello.Othello.Color;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OpeningBookTest {
+
+    Path path;
+
+    @BeforeEach
+    void createFile() throws Exception {
+        path = Files.createTempFile("book", ".bin");
+    }
+
+    @AfterEach
+    void deleteFile() throws Exception {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    @DisplayName("finds the move with the best score")
+    void testProbe() throws Exception {
+        BoardSnapshot start = Board.init().snapshot();
+        BoardSnapshot next = start.play(19);
+
+        BookWriter writer = new BookWriter();
+        writer.add(start, 19, 0, 10);
+        writer.add(next, 18, -2, 5);
+        writer.add(next, 20, 1, 3);
+        writer.add(next, 34, 1, 4);
+        writer.write(path);
+
+        OpeningBook book = OpeningBook.open(path);
+
+        assertThat(book.size()).isEqualTo(4);
+        assertThat(book.probe(start)).isEqualTo(19);
+        assertThat(book.probe(next)).isEqualTo(34);
+        assertThat(book.probe(next.play(34))).isEqualTo(OpeningBook.NO_MOVE);
+    }
+
+    @Test
+    @DisplayName("shares records between symmetric positions")
+    void testSymmetry() throws Exception {
+        BoardSnapshot position = Board.init().snapshot().play(19).play(18).play(17);
+        Color color = position.getSideToMove();
+        long own = position.getDiscs(color), opp = position.getDiscs(color.opposite());
+        int move = Long.numberOfTrailingZeros(position.legalMoves());
+
+        BookWriter writer = new BookWriter();
+        writer.add(own, opp, move, 4, 1);
+        writer.write(path);
+        OpeningBook book = OpeningBook.open(path);
+
+        for (int s = 0; s < Bitboards.SYMMETRIES; ++s) {
+            long expected = Bitboards.transform(1L << move, s);
+            assertThat(book.probe(Bitboards.transform(own, s), Bitboards.transform(opp, s)))
+                    .isEqualTo(Long.numberOfTrailingZeros(expected));
+        }
+    }
+
+    @Test
+    @DisplayName("adds up the counts of a move added more than once")
+    void testMerge() throws Exception {
+        BoardSnapshot position = Board.init().snapshot().play(19).play(18).play(17);
+        Color color = position.getSideToMove();
+        long own = position.getDiscs(color), opp = position.getDiscs(color.opposite());
+        int move = Long.numberOfTrailingZeros(position.legalMoves());
+
+        BookWriter writer = new BookWriter();
+        writer.add(own, opp, move, 0, 2);
+        writer.add(Bitboards.transform(own, 3), Bitboards.transform(opp, 3), OpeningBook.transformSquare(move, 3), 1, 5);
+        writer.write(path);
+
+        List<OpeningBook.Entry> entries = OpeningBook.open(path).lookup(own, opp);
+
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0).move).isEqualTo(move);
+        assertThat(entries.get(0).score).isEqualTo(1);
+        assertThat(entries.get(0).count).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("rejects a file that isn't a book")
+    void testNotABook() throws Exception {
+        Files.write(path, new byte[32]);
+
+        assertThatThrownBy(() -> OpeningBook.open(path)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
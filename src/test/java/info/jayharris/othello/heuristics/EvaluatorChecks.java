@@ -0,0 +1,58 @@
+package info.jayharris.othello.heuristics;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.Board.Move;
+import info.jayharris.othello.Othello.Color;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks a heuristic's incremental evaluator against the heuristic itself.
+ */
+class EvaluatorChecks {
+
+    /**
+     * Plays random games to the end and takes them back, checking after every
+     * move that the evaluator has the same value as {@code apply}.
+     */
+    static void assertTracksApply(HeuristicFunction h) {
+        SplittableRandom random = new SplittableRandom(17);
+
+        for (int game = 0; game < 10; ++game) {
+            Board board = Board.init();
+            HeuristicFunction.Evaluator evaluator = h.evaluator(board);
+            assertThat(evaluator).isNotNull();
+            assertThat(evaluator.value()).isEqualTo(h.apply(board));
+
+            Deque<Move> moves = new ArrayDeque<>();
+            Color color = Color.BLACK;
+            while (board.legalMoves(Color.BLACK) != 0 || board.legalMoves(Color.WHITE) != 0) {
+                long legal = board.legalMoves(color);
+                if (legal != 0) {
+                    for (int skip = random.nextInt(Long.bitCount(legal)); skip > 0; --skip) {
+                        legal &= legal - 1;
+                    }
+                    Move move = board.play(Long.numberOfTrailingZeros(legal), color);
+                    evaluator.applyDelta(move);
+                    moves.push(move);
+
+                    assertThat(evaluator.value()).isEqualTo(h.apply(board));
+                    assertThat(evaluator.score()).isEqualTo(h.score(board));
+                }
+                color = color.opposite();
+            }
+
+            while (!moves.isEmpty()) {
+                Move move = moves.pop();
+                board.undo(move);
+                evaluator.revert(move);
+
+                assertThat(evaluator.value()).isEqualTo(h.apply(board));
+            }
+        }
+    }
+}
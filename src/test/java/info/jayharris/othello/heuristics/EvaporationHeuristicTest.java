@@ -43,4 +43,10 @@ public class EvaporationHeuristicTest {
 
         assertThat(new EvaporationHeuristic(Color.WHITE).apply(board)).isEqualTo(-Long.MAX_VALUE);
     }
+
+    @Test
+    @DisplayName("it keeps its value up to date incrementally")
+    public void testEvaluator() throws Exception {
+        EvaluatorChecks.assertTracksApply(new EvaporationHeuristic(Color.WHITE));
+    }
 }
@@ -26,4 +26,10 @@ public class GreedyHeuristicTest {
 
         assertThat(new GreedyHeuristic(Color.BLACK).apply(board)).isEqualTo(6);
     }
+
+    @Test
+    @DisplayName("it keeps its value up to date incrementally")
+    public void testEvaluator() throws Exception {
+        EvaluatorChecks.assertTracksApply(new GreedyHeuristic(Color.BLACK));
+    }
 }
@@ -0,0 +1,132 @@
+package info.jayharris.othello.heuristics;
+
+import info.jayharris.othello.Bitboards;
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardFactory;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.heuristics.PatternHeuristic.Pattern;
+import info.jayharris.othello.heuristics.PatternHeuristic.Weights;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PatternHeuristicTest {
+
+    private Board board;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        board = BoardFactory.getFactory().fromString(
+                "b       " +
+                " w      " +
+                "  bb    " +
+                "   wb   " +
+                "   wbb  " +
+                "   www  " +
+                "    bw w" +
+                "       b"
+        );
+    }
+
+    @Test
+    @DisplayName("it covers every square with 46 pattern instances")
+    public void testInstances() throws Exception {
+        assertThat(PatternHeuristic.countInstances()).isEqualTo(46);
+
+        long covered = 0L;
+        for (int[] instance : PatternHeuristic.INSTANCE_SQUARES) {
+            for (int square : instance) {
+                covered |= 1L << square;
+            }
+        }
+        assertThat(covered).isEqualTo(Bitboards.FULL);
+    }
+
+    @Test
+    @DisplayName("it reads each instance's index from the bitboards")
+    public void testIndex() throws Exception {
+        SplittableRandom random = new SplittableRandom(23);
+        Weights weights = new Weights();
+        for (Pattern pattern : Pattern.values()) {
+            for (int index = 0; index < pattern.size; ++index) {
+                weights.set(0, pattern, index, (short) random.nextInt(-1000, 1000));
+            }
+        }
+        PatternHeuristic heuristic = new PatternHeuristic(Color.BLACK, weights);
+
+        for (int i = 0; i < 1000; ++i) {
+            long occupied = random.nextLong(), own = random.nextLong() & occupied, opp = occupied & ~own;
+            // keep to the first stage
+            while (Long.bitCount(own | opp) > 4 + PatternHeuristic.STAGE_DISCS - 1) {
+                own &= random.nextLong();
+                opp &= random.nextLong();
+            }
+
+            long expected = 0;
+            for (int j = 0; j < PatternHeuristic.countInstances(); ++j) {
+                Pattern pattern = Pattern.values()[PatternHeuristic.INSTANCE_PATTERNS[j]];
+                expected += weights.get(0, pattern, PatternHeuristic.index(PatternHeuristic.INSTANCE_SQUARES[j], own, opp));
+            }
+            assertThat(heuristic.evaluate(own, opp)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("its default weights agree with the positional heuristic")
+    public void testDefaultWeights() throws Exception {
+        long pattern = new PatternHeuristic(Color.BLACK).apply(board);
+        long positional = PatternHeuristic.DEFAULT_SCALE * new PositionalHeuristic(Color.BLACK).apply(board);
+
+        assertThat(Math.abs(pattern - positional)).isLessThanOrEqualTo(PatternHeuristic.countInstances() / 2);
+        assertThat(new PatternHeuristic(Color.WHITE).apply(board)).isEqualTo(-pattern);
+    }
+
+    @Test
+    @DisplayName("it scores every rotation and reflection of a board the same")
+    public void testSymmetry() throws Exception {
+        PatternHeuristic heuristic = new PatternHeuristic(Color.BLACK);
+        long own = board.getDiscs(Color.BLACK), opp = board.getDiscs(Color.WHITE);
+
+        for (int s = 0; s < Bitboards.SYMMETRIES; ++s) {
+            assertThat(heuristic.evaluate(Bitboards.transform(own, s), Bitboards.transform(opp, s)))
+                    .isEqualTo(heuristic.evaluate(own, opp));
+        }
+    }
+
+    @Test
+    @DisplayName("it saves and loads its weights")
+    public void testSaveAndLoad() throws Exception {
+        Weights weights = new Weights();
+        int stage = PatternHeuristic.stage(Long.bitCount(board.getDiscs(Color.BLACK) | board.getDiscs(Color.WHITE)));
+        // both edges through a1 read 1 for black's a1, then seven empty
+        // squares, then 2 for white's b2 and 0 for the other X-square
+        int index = 1 * (int) Math.pow(3, 9) + 2 * 3;
+        weights.set(stage, Pattern.EDGE_2X, index, (short) 500);
+
+        Path path = Files.createTempFile("weights", ".bin");
+        Weights loaded;
+        try {
+            weights.save(path);
+            loaded = Weights.load(path);
+        }
+        finally {
+            Files.delete(path);
+        }
+
+        assertThat(loaded.get(stage, Pattern.EDGE_2X, index)).isEqualTo((short) 500);
+        assertThat(new PatternHeuristic(Color.BLACK, loaded).apply(board)).isEqualTo(1000);
+        assertThat(new PatternHeuristic(Color.WHITE, loaded).apply(board)).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("it keeps its value up to date incrementally")
+    public void testEvaluator() throws Exception {
+        EvaluatorChecks.assertTracksApply(new PatternHeuristic(Color.BLACK));
+    }
+}
@@ -26,4 +26,10 @@ public class PositionalHeuristicTest {
 
         assertThat(new PositionalHeuristic(Color.BLACK).apply(board)).isEqualTo(-10);
     }
+
+    @Test
+    @DisplayName("it keeps its value up to date incrementally")
+    public void testEvaluator() throws Exception {
+        EvaluatorChecks.assertTracksApply(new PositionalHeuristic(Color.WHITE));
+    }
 }
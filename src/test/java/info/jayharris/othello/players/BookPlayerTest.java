@@ -0,0 +1,54 @@
+package info.jayharris.othello.players;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardSnapshot;
+import info.jayharris.othello.Othello;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.Player;
+import info.jayharris.othello.book.BookWriter;
+import info.jayharris.othello.book.OpeningBook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookPlayerTest {
+
+    @Test
+    @DisplayName("plays book moves, then lets the other player choose")
+    void testPlaysFromBook() throws Exception {
+        BoardSnapshot start = Board.init().snapshot();
+        Path path = Files.createTempFile("book", ".bin");
+
+        try {
+            BookWriter writer = new BookWriter();
+            writer.add(start, 37, 0, 1);
+            writer.add(start.play(37).play(29), 22, 0, 1);
+            writer.write(path);
+
+            BookPlayer player = new BookPlayer(new RandomMovePlayer(Color.BLACK), OpeningBook.open(path));
+            Othello othello = new Othello(player, new Player(Color.WHITE) {
+                @Override
+                public Board.Square getMove(Othello othello) {
+                    long moves = getLegalMoveMask(othello.getBoard());
+                    return othello.getBoard().getSquare((moves & (1L << 29)) != 0 ? 29 : Long.numberOfTrailingZeros(moves));
+                }
+            });
+
+            Player current = player;
+            for (int ply = 0; ply < 5; ++ply) {
+                current = othello.nextPly(current);
+            }
+
+            assertThat(othello.getMoves().get(0).getIndex()).isEqualTo(37);
+            assertThat(othello.getMoves().get(2).getIndex()).isEqualTo(22);
+            assertThat(player.getBookMoves()).isEqualTo(2);
+        }
+        finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -106,4 +106,23 @@ public class HeuristicPlayerTest {
 
         assertThat(player.getMove(othello)).isEqualTo(othello.getBoard().getSquare('b', 2));
     }
+
+    @Test
+    @DisplayName("it scores each legal move once")
+    void testScoresOnce() throws Exception {
+        int[] calls = new int[1];
+        HeuristicFunction countingFunction = new TestHeuristicFunction(Color.WHITE, createMappingForTestFunction(board)) {
+            @Override
+            public long apply(Board board) {
+                ++calls[0];
+                return super.apply(board);
+            }
+        };
+        player = new HeuristicPlayer(Color.WHITE, countingFunction);
+        othello = new Othello(null, player);
+        boardField.set(othello, board);
+
+        assertThat(player.getMove(othello)).isEqualTo(othello.getBoard().getSquare('f', 6));
+        assertThat(calls[0]).isEqualTo(7);
+    }
 }
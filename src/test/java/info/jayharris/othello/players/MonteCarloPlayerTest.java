@@ -0,0 +1,31 @@
+package info.jayharris.othello.players;
+
+import info.jayharris.othello.Othello;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.Player;
+import info.jayharris.othello.search.MonteCarloTreeSearch;
+import info.jayharris.othello.search.SearchLimits;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MonteCarloPlayerTest {
+
+    @Test
+    @DisplayName("plays a whole game, reusing its tree from move to move")
+    void testPlaysGame() throws Exception {
+        MonteCarloPlayer player = new MonteCarloPlayer(Color.BLACK, SearchLimits.builder().nodes(200).build());
+        Othello othello = new Othello(player, new RandomMovePlayer(Color.WHITE));
+
+        Player current = player;
+        boolean reused = false;
+        while ((current = othello.nextPly(current)) != null) {
+            reused |= ((MonteCarloTreeSearch) player.search).getRootVisits() > player.getLastResult().nodes;
+        }
+
+        assertThat(othello.getBoard().legalMoves(Color.BLACK)).isZero();
+        assertThat(othello.getBoard().legalMoves(Color.WHITE)).isZero();
+        assertThat(reused).isTrue();
+    }
+}
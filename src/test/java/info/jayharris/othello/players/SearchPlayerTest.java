@@ -0,0 +1,137 @@
+package info.jayharris.othello.players;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardFactory;
+import info.jayharris.othello.GameClock;
+import info.jayharris.othello.Othello;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.Player;
+import info.jayharris.othello.heuristics.GreedyHeuristic;
+import info.jayharris.othello.search.AlphaBetaSearch;
+import info.jayharris.othello.search.Ponderer;
+import info.jayharris.othello.search.SearchLimits;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchPlayerTest {
+
+    static Field boardField;
+
+    @BeforeAll
+    static void init() throws Exception {
+        boardField = Othello.class.getDeclaredField("board");
+        boardField.setAccessible(true);
+    }
+
+    @Test
+    @DisplayName("at depth 1 it chooses the move that the heuristic likes best")
+    void testDepthOne() throws Exception {
+        Player player = new SearchPlayer(Color.BLACK, new GreedyHeuristic(Color.BLACK), SearchLimits.depth(1));
+        Othello othello = new Othello(player, null);
+        Board board = BoardFactory.getFactory().fromString(
+                "        " +
+                "        " +
+                "    w   " +
+                "  bbbb  " +
+                "  wbbb  " +
+                "   wwww " +
+                "     b  " +
+                "        "
+        );
+        boardField.set(othello, board);
+
+        assertThat(player.getMove(othello)).isSameAs(othello.getBoard().getSquare('d', 7));
+    }
+
+    @Test
+    @DisplayName("reports the depth it reached")
+    void testReportsResult() throws Exception {
+        SearchPlayer player = new SearchPlayer(Color.WHITE, new GreedyHeuristic(Color.WHITE), SearchLimits.depth(3));
+        Othello othello = new Othello(null, player);
+        othello.getBoard().play(othello.getBoard().getSquare('d', 3), Color.BLACK);
+
+        player.getMove(othello);
+
+        assertThat(player.getLastResult().depth).isEqualTo(3);
+        assertThat(player.getLastResult().nodes).isPositive();
+    }
+
+    @Test
+    @DisplayName("solves the game exactly once few squares are empty")
+    void testEndgame() throws Exception {
+        SearchPlayer player = new SearchPlayer(Color.WHITE, new GreedyHeuristic(Color.WHITE), SearchLimits.depth(1));
+        Othello othello = new Othello(null, player);
+        Board board = BoardFactory.getFactory().fromString(
+                "wwwwwwww" +
+                "wwwwwwwb" +
+                "wbbbbbb " +
+                "wwwwwwb " +
+                "wwwwww  " +
+                "wwwwww b" +
+                "wwwwwww " +
+                "wwwwwwww"
+        );
+        boardField.set(othello, board);
+
+        Board.Square move = player.getMove(othello);
+
+        assertThat(player.getLastResult().depth).isEqualTo(board.countEmpty());
+        assertThat(player.getLastResult().score).isGreaterThan(AlphaBetaSearch.WIN_SCORE);
+        assertThat(move.isLegalMove(Color.WHITE)).isTrue();
+    }
+
+    @Test
+    @DisplayName("ponders on the opponent's time through a whole game")
+    void testPondering() throws Exception {
+        SearchPlayer player = new SearchPlayer(Color.BLACK, new GreedyHeuristic(Color.BLACK), SearchLimits.depth(3));
+        player.setPondering(true);
+        Othello othello = new Othello(player, new RandomMovePlayer(Color.WHITE));
+
+        Player current = player;
+        while ((current = othello.nextPly(current)) != null);
+        Ponderer ponderer = player.getPonderer();
+        player.setPondering(false);
+
+        assertThat(ponderer.getHits() + ponderer.getMisses()).isPositive();
+        assertThat(othello.getBoard().legalMoves(Color.BLACK)).isZero();
+        assertThat(othello.getBoard().legalMoves(Color.WHITE)).isZero();
+    }
+
+    @Test
+    @DisplayName("plays a timed game without running out of time")
+    void testGameClock() throws Exception {
+        SearchPlayer player = new SearchPlayer(Color.WHITE, new GreedyHeuristic(Color.WHITE), SearchLimits.builder().build());
+        GameClock clock = new GameClock(2_000);
+        Othello othello = new Othello(new RandomMovePlayer(Color.BLACK), player, clock);
+
+        othello.play();
+
+        assertThat(clock.hasExpired(Color.WHITE)).isFalse();
+        assertThat(clock.getRemainingMillis(Color.WHITE)).isLessThan(2_000);
+    }
+
+    @Test
+    @DisplayName("falls back on the heuristic search within the same time budget")
+    void testSolverFallbackBudget() throws Exception {
+        SearchLimits limits = SearchLimits.builder().millis(400).build();
+        SearchPlayer player = new SearchPlayer(Color.BLACK, new GreedyHeuristic(Color.BLACK), limits);
+        player.setEndgameEmpties(Board.SIZE * Board.SIZE);
+        Othello othello = new Othello(player, null);
+
+        long start = System.nanoTime();
+        Board.Square move = player.getMove(othello);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // the solver can't finish from the opening, so the search had to run
+        // on what it left
+        assertThat(player.getLastResult().depth).isLessThan(othello.getBoard().countEmpty());
+        assertThat(move.isLegalMove(Color.BLACK)).isTrue();
+        assertThat(elapsed).isLessThan(limits.millis + 100);
+    }
+}
@@ -0,0 +1,162 @@
+package info.jayharris.othello.search;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.Board.Move;
+import info.jayharris.othello.BoardFactory;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.heuristics.HeuristicFunction;
+import info.jayharris.othello.heuristics.PositionalHeuristic;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AlphaBetaSearchTest {
+
+    static final String MIDGAME =
+            "        " +
+            "   w    " +
+            "  bww   " +
+            "  bwb   " +
+            "  wwbb  " +
+            "  w wb  " +
+            "        " +
+            "        ";
+
+    /**
+     * Plain minimax without pruning, to check the alpha-beta score against.
+     */
+    static long minimax(AlphaBetaSearch search, Board board, int depth) {
+        Color color = board.getSideToMove();
+        long moves = board.legalMoves(color);
+
+        if (moves == 0) {
+            if (board.legalMoves(color.opposite()) == 0) {
+                return AlphaBetaSearch.terminal(board);
+            }
+            board.pass();
+            long score = -minimax(search, board, depth);
+            board.pass();
+            return score;
+        }
+        if (depth == 0) {
+            return search.evaluate(board);
+        }
+
+        long best = -AlphaBetaSearch.INFINITY;
+        for (; moves != 0; moves &= moves - 1) {
+            Move move = board.play(Long.numberOfTrailingZeros(moves), color);
+            best = Math.max(best, -minimax(search, board, depth - 1));
+            board.undo(move);
+        }
+        return best;
+    }
+
+    @Test
+    @DisplayName("finds the same score as minimax")
+    void testMatchesMinimax() throws Exception {
+        Board board = BoardFactory.getFactory().fromString(MIDGAME);
+        HeuristicFunction h = new PositionalHeuristic(Color.BLACK);
+        AlphaBetaSearch search = new AlphaBetaSearch(h);
+
+        for (int depth = 1; depth <= 4; ++depth) {
+            SearchResult result = search.search(board, Color.BLACK, SearchLimits.depth(depth));
+
+            assertThat(result.depth).isEqualTo(depth);
+            assertThat(result.score).isEqualTo(minimax(search, Board.deepCopy(board), depth));
+        }
+    }
+
+    @Test
+    @DisplayName("finds the same score with fewer nodes when using a transposition table")
+    void testTranspositionTable() throws Exception {
+        Board board = BoardFactory.getFactory().fromString(MIDGAME);
+        HeuristicFunction h = new PositionalHeuristic(Color.BLACK);
+
+        SearchResult without = new AlphaBetaSearch(h).search(board, Color.BLACK, SearchLimits.depth(6));
+        SearchResult with = new AlphaBetaSearch(h, new TranspositionTable(4))
+                .search(board, Color.BLACK, SearchLimits.depth(6));
+
+        assertThat(with.score).isEqualTo(without.score);
+        assertThat(with.nodes).isLessThan(without.nodes);
+    }
+
+    @Test
+    @DisplayName("finds the same score with principal variation search and aspiration windows")
+    void testPrincipalVariation() throws Exception {
+        Board board = BoardFactory.getFactory().fromString(MIDGAME);
+        HeuristicFunction h = new PositionalHeuristic(Color.WHITE);
+
+        AlphaBetaSearch plain = new AlphaBetaSearch(h);
+        plain.setPrincipalVariation(false);
+        plain.setAspirationWindow(0);
+        AlphaBetaSearch pvs = new AlphaBetaSearch(h);
+        pvs.setAspirationWindow(1);
+
+        for (int depth = 1; depth <= 6; ++depth) {
+            SearchResult expected = plain.search(board, Color.WHITE, SearchLimits.depth(depth));
+            SearchResult actual = pvs.search(board, Color.WHITE, SearchLimits.depth(depth));
+
+            assertThat(actual.score).isEqualTo(expected.score);
+        }
+    }
+
+    @Test
+    @DisplayName("doesn't change the board")
+    void testLeavesBoardAlone() throws Exception {
+        Board board = BoardFactory.getFactory().fromString(MIDGAME);
+        Board copy = Board.deepCopy(board);
+
+        new AlphaBetaSearch(new PositionalHeuristic(Color.WHITE)).search(board, Color.WHITE, SearchLimits.depth(3));
+
+        assertThat(board).isEqualTo(copy);
+    }
+
+    @Test
+    @DisplayName("scores a forced win above any heuristic score")
+    void testForcedWin() throws Exception {
+        Board board = BoardFactory.getFactory().fromString(
+                "wwwwwwww" +
+                "wwwwwwwb" +
+                "wbbbbbb " +
+                "wwwwwwb " +
+                "wwwwww  " +
+                "wwwwww b" +
+                "wwwwwww " +
+                "wwwwwwww"
+        );
+
+        SearchResult result = new AlphaBetaSearch(new PositionalHeuristic(Color.WHITE))
+                .search(board, Color.WHITE, SearchLimits.depth(10));
+
+        assertThat(result.score).isGreaterThan(AlphaBetaSearch.WIN_SCORE);
+        assertThat(board.legalMoves(Color.WHITE) & (1L << result.move)).isNotZero();
+    }
+
+    @Test
+    @DisplayName("stops when the node budget runs out")
+    void testNodeBudget() throws Exception {
+        Board board = BoardFactory.getFactory().newGame();
+
+        SearchResult result = new AlphaBetaSearch(new PositionalHeuristic(Color.BLACK))
+                .search(board, Color.BLACK, SearchLimits.builder().nodes(5000).build());
+
+        assertThat(result.nodes).isLessThanOrEqualTo(5000);
+        assertThat(result.depth).isGreaterThan(0).isLessThan(SearchLimits.MAX_DEPTH);
+        assertThat(board.legalMoves(Color.BLACK) & (1L << result.move)).isNotZero();
+    }
+
+    @Test
+    @DisplayName("a resumed search honors a stop requested before it")
+    void testResumeAfterStop() throws Exception {
+        Board board = BoardFactory.getFactory().fromString(MIDGAME);
+        AlphaBetaSearch search = new AlphaBetaSearch(new PositionalHeuristic(Color.BLACK), new TranspositionTable(4));
+
+        search.newSearch();
+        search.stop();
+        SearchResult result = search.resume(board, Color.BLACK, SearchLimits.builder().millis(5_000).build());
+
+        assertThat(result.nanos).isLessThan(1_000_000_000L);
+        assertThat(search.search(board, Color.BLACK, SearchLimits.depth(2)).depth).isEqualTo(2);
+    }
+}
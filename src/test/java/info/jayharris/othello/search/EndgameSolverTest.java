@@ -0,0 +1,85 @@
+package info.jayharris.othello.search;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardSnapshot;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.heuristics.PositionalHeuristic;
+import info.jayharris.othello.search.EndgameSolver.Mode;
+import info.jayharris.othello.tools.Positions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EndgameSolverTest {
+
+    static final AlphaBetaSearch REFERENCE = new AlphaBetaSearch(new PositionalHeuristic(Color.BLACK));
+
+    /**
+     * Scores a position by searching every line to the end without pruning.
+     */
+    static long minimax(Board board) {
+        return AlphaBetaSearchTest.minimax(REFERENCE, Board.deepCopy(board), Board.SIZE * Board.SIZE);
+    }
+
+    @Test
+    @DisplayName("finds the same final disc differential as minimax")
+    void testExact() throws Exception {
+        EndgameSolver solver = new EndgameSolver();
+
+        for (int empties = 1; empties <= 9; ++empties) {
+            for (BoardSnapshot position : Positions.random(3, 60 - empties, empties)) {
+                Board board = position.toBoard();
+                int score = solver.solve(board, board.getSideToMove());
+
+                assertThat(AlphaBetaSearch.outcome(score)).as(position.toString()).isEqualTo(minimax(board));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("finds whether the game is won, lost or drawn")
+    void testWinLossDraw() throws Exception {
+        EndgameSolver exact = new EndgameSolver(), wld = new EndgameSolver(Mode.WIN_LOSS_DRAW);
+
+        for (BoardSnapshot position : Positions.random(10, 48, 7L)) {
+            Board board = position.toBoard();
+            int score = exact.solve(board, board.getSideToMove());
+
+            assertThat(Integer.signum(wld.solve(board, board.getSideToMove())))
+                    .as(position.toString()).isEqualTo(Integer.signum(score));
+            assertThat(wld.nodes).isLessThanOrEqualTo(exact.nodes);
+        }
+    }
+
+    @Test
+    @DisplayName("chooses a move that achieves the solved score")
+    void testSearch() throws Exception {
+        EndgameSolver solver = new EndgameSolver();
+
+        for (BoardSnapshot position : Positions.random(5, 46, 11L)) {
+            Board board = position.toBoard();
+            Color color = board.getSideToMove();
+            int expected = solver.solve(board, color);
+
+            SearchResult result = solver.search(board, color, SearchLimits.builder().build());
+
+            assertThat(result.score).isEqualTo(AlphaBetaSearch.outcome(expected));
+            assertThat(result.depth).isEqualTo(board.countEmpty());
+            assertThat(-solver.solve(position.play(result.move).toBoard(), color.opposite()))
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("gives up when the node budget runs out")
+    void testNodeBudget() throws Exception {
+        Board board = Positions.random(1, 36, 3L).get(0).toBoard();
+        Color color = board.getSideToMove();
+
+        SearchResult result = new EndgameSolver().search(board, color, SearchLimits.builder().nodes(10_000).build());
+
+        assertThat(result.depth).isZero();
+        assertThat(board.legalMoves(color) & (1L << result.move)).isNotZero();
+    }
+}
@@ -0,0 +1,121 @@
+package info.jayharris.othello.search;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardFactory;
+import info.jayharris.othello.BoardSnapshot;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.tools.Positions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MonteCarloTreeSearchTest {
+
+    static MonteCarloTreeSearch newSearch(long seed) {
+        return new MonteCarloTreeSearch(1 << 16, MonteCarloTreeSearch.DEFAULT_EXPLORATION, new SplittableRandom(seed));
+    }
+
+    @Test
+    @DisplayName("runs exactly the playout budget")
+    void testPlayoutBudget() throws Exception {
+        Board board = BoardFactory.getFactory().newGame();
+        MonteCarloTreeSearch search = newSearch(1L);
+
+        SearchResult result = search.search(board, Color.BLACK, SearchLimits.builder().nodes(2000).build());
+
+        assertThat(result.nodes).isEqualTo(2000);
+        assertThat(search.getRootVisits()).isEqualTo(2000);
+        assertThat(board.legalMoves(Color.BLACK) & (1L << result.move)).isNotZero();
+        assertThat(board).isEqualTo(BoardFactory.getFactory().newGame());
+    }
+
+    @Test
+    @DisplayName("scores a finished game by its disc differential")
+    void testRandomGame() throws Exception {
+        long black = 0xffffffff00000000L, white = 0x00000000ffff0000L;
+        SplittableRandom random = new SplittableRandom(0L);
+
+        assertThat(MonteCarloTreeSearch.randomGame(black, white, random)).isEqualTo(1);
+        assertThat(MonteCarloTreeSearch.randomGame(white, black, random)).isEqualTo(-1);
+        assertThat(MonteCarloTreeSearch.randomGame(0x00000000ffffffffL, 0xffffffff00000000L, random)).isZero();
+    }
+
+    @Test
+    @DisplayName("keeps the subtree under the moves that were played")
+    void testTreeReuse() throws Exception {
+        BoardSnapshot position = Board.init().snapshot();
+        MonteCarloTreeSearch search = newSearch(2L);
+        SearchLimits limits = SearchLimits.builder().nodes(3000).build();
+
+        SearchResult first = search.search(position.toBoard(), Color.BLACK, limits);
+        int nodes = search.getTreeSize();
+
+        // the opponent replies with the move the tree likes best for them
+        int child = childFor(search, first.move);
+        int reply = search.pool.move[MonteCarloTreeSearch.bestChild(search.pool, child)];
+        position = position.play(first.move).play(reply);
+
+        search.moveRoot(position);
+        int kept = search.getRootVisits();
+        assertThat(kept).isPositive();
+        assertThat(search.getTreeSize()).isLessThan(nodes);
+
+        search.search(position.toBoard(), Color.BLACK, limits);
+        assertThat(search.getRootVisits()).isEqualTo(kept + 3000);
+    }
+
+    private static int childFor(MonteCarloTreeSearch search, int move) {
+        NodePool pool = search.pool;
+        int first = pool.getFirstChild(search.root);
+        for (int i = 0; i < pool.childCount[search.root]; ++i) {
+            if (pool.move[first + i] == move) {
+                return first + i;
+            }
+        }
+        throw new AssertionError();
+    }
+
+    @Test
+    @DisplayName("finds a winning move in a small endgame")
+    void testEndgame() throws Exception {
+        EndgameSolver solver = new EndgameSolver(EndgameSolver.Mode.WIN_LOSS_DRAW);
+
+        for (BoardSnapshot position : Positions.random(4, 54, 9L)) {
+            Board board = position.toBoard();
+            Color color = board.getSideToMove();
+            if (solver.solve(board, color) <= 0) {
+                continue;
+            }
+
+            SearchResult result = newSearch(3L).search(board, color, SearchLimits.builder().nodes(20_000).build());
+
+            assertThat(-solver.solve(position.play(result.move).toBoard(), color.opposite()))
+                    .as(position.toString()).isPositive();
+        }
+    }
+
+    @Test
+    @DisplayName("with several threads, keeps the visit counts consistent")
+    void testTreeParallel() throws Exception {
+        Board board = BoardFactory.getFactory().newGame();
+        MonteCarloTreeSearch search = new MonteCarloTreeSearch(
+                1 << 16, MonteCarloTreeSearch.DEFAULT_EXPLORATION, new SplittableRandom(4L), 3);
+
+        SearchResult result = search.search(board, Color.BLACK, SearchLimits.builder().nodes(3000).build());
+        search.shutdown();
+
+        NodePool pool = search.pool;
+        int first = pool.getFirstChild(search.root), visits = 0;
+        for (int child = first; child < first + pool.getChildCount(search.root); ++child) {
+            visits += pool.getVisits(child);
+            assertThat(pool.getWins(child)).isBetween(0, 2 * pool.getVisits(child));
+        }
+
+        assertThat(result.nodes).isGreaterThanOrEqualTo(3000);
+        assertThat(search.getRootVisits()).isEqualTo((int) result.nodes).isEqualTo(visits);
+        assertThat(board.legalMoves(Color.BLACK) & (1L << result.move)).isNotZero();
+    }
+}
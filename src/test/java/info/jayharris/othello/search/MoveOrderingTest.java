@@ -0,0 +1,99 @@
+package info.jayharris.othello.search;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardFactory;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.heuristics.HeuristicFunction;
+import info.jayharris.othello.heuristics.PositionalHeuristic;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static info.jayharris.othello.Bitboards.bit;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MoveOrderingTest {
+
+    static final int A1 = 0, B2 = 9, D3 = 19, C4 = 26, H8 = 63;
+
+    static int[] order(MoveOrdering ordering, long moves, int hashMove, Color color, int ply) {
+        int[] result = new int[ordering.order(moves, hashMove, color, ply)];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = ordering.move(ply, i);
+        }
+        return result;
+    }
+
+    @Test
+    @DisplayName("falls back on the static square values")
+    void testStaticOrder() throws Exception {
+        MoveOrdering ordering = new MoveOrdering();
+        long moves = bit(A1) | bit(B2) | bit(D3) | bit(H8);
+
+        assertThat(order(ordering, moves, TranspositionTable.NO_MOVE, Color.BLACK, 0))
+                .containsExactly(A1, H8, D3, B2);
+    }
+
+    @Test
+    @DisplayName("tries the hash move, then killer moves, then moves with a good history")
+    void testPriorities() throws Exception {
+        MoveOrdering ordering = new MoveOrdering();
+        long moves = bit(A1) | bit(B2) | bit(D3) | bit(C4) | bit(H8);
+
+        ordering.cutoff(B2, Color.BLACK, 3, 4, 0);
+        ordering.cutoff(C4, Color.BLACK, 5, 6, 1);
+
+        assertThat(order(ordering, moves, D3, Color.BLACK, 3)).containsExactly(D3, B2, C4, A1, H8);
+        assertThat(order(ordering, moves, TranspositionTable.NO_MOVE, Color.BLACK, 5))
+                .containsExactly(C4, B2, A1, H8, D3);
+        assertThat(order(ordering, moves, TranspositionTable.NO_MOVE, Color.WHITE, 4))
+                .containsExactly(A1, H8, D3, C4, B2);
+
+        MoveOrdering.Statistics statistics = ordering.getStatistics();
+        assertThat(statistics.getCutoffs()).isEqualTo(2);
+        assertThat(statistics.getFirstMoveCutoffs()).isEqualTo(1);
+        assertThat(statistics.firstMoveCutoffRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("keeps only the two most recent killer moves at each ply")
+    void testKillers() throws Exception {
+        MoveOrdering ordering = new MoveOrdering();
+        long moves = bit(A1) | bit(B2) | bit(D3) | bit(C4);
+
+        ordering.cutoff(D3, Color.BLACK, 2, 8, 0);
+        ordering.cutoff(C4, Color.BLACK, 2, 1, 0);
+        ordering.cutoff(B2, Color.BLACK, 2, 1, 0);
+
+        assertThat(order(ordering, moves, TranspositionTable.NO_MOVE, Color.BLACK, 2))
+                .containsExactly(B2, C4, D3, A1);
+
+        // the killers are forgotten, but the history survives
+        ordering.newSearch();
+        assertThat(order(ordering, moves, TranspositionTable.NO_MOVE, Color.BLACK, 2))
+                .containsExactly(D3, A1, C4, B2);
+    }
+
+    @Test
+    @DisplayName("searches fewer nodes than an unordered search, and cuts off with the first move")
+    void testSearch() throws Exception {
+        Board board = BoardFactory.getFactory().fromString(AlphaBetaSearchTest.MIDGAME);
+        HeuristicFunction h = new PositionalHeuristic(Color.BLACK);
+
+        AlphaBetaSearch unordered = new AlphaBetaSearch(h, null, new MoveOrdering() {
+            @Override
+            protected int score(int square, Color color, int ply) {
+                return 0;
+            }
+        });
+        AlphaBetaSearch ordered = new AlphaBetaSearch(h, null, new MoveOrdering());
+
+        SearchResult without = unordered.search(board, Color.BLACK, SearchLimits.depth(7));
+        SearchResult with = ordered.search(board, Color.BLACK, SearchLimits.depth(7));
+
+        assertThat(with.score).isEqualTo(without.score);
+        assertThat(with.nodes).isLessThan(without.nodes);
+        assertThat(with.effectiveBranchingFactor()).isLessThan(without.effectiveBranchingFactor());
+        assertThat(ordered.getOrderingStatistics().firstMoveCutoffRate())
+                .isGreaterThan(unordered.getOrderingStatistics().firstMoveCutoffRate());
+    }
+}
@@ -0,0 +1,63 @@
+package info.jayharris.othello.search;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardFactory;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.heuristics.HeuristicFunction;
+import info.jayharris.othello.heuristics.PositionalHeuristic;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelSearchTest {
+
+    @Test
+    @DisplayName("with one thread, finds the same result as a single search")
+    void testOneThread() throws Exception {
+        Board board = BoardFactory.getFactory().fromString(AlphaBetaSearchTest.MIDGAME);
+        HeuristicFunction h = new PositionalHeuristic(Color.BLACK);
+
+        SearchResult expected = new AlphaBetaSearch(h, new TranspositionTable(4))
+                .search(board, Color.BLACK, SearchLimits.depth(6));
+        ParallelSearch search = new ParallelSearch(h, new TranspositionTable(4), 1);
+        SearchResult actual = search.search(board, Color.BLACK, SearchLimits.depth(6));
+        search.shutdown();
+
+        assertThat(actual.move).isEqualTo(expected.move);
+        assertThat(actual.score).isEqualTo(expected.score);
+        assertThat(actual.nodes).isEqualTo(expected.nodes);
+    }
+
+    @Test
+    @DisplayName("with several threads, completes the search without changing the board")
+    void testSeveralThreads() throws Exception {
+        Board board = BoardFactory.getFactory().fromString(AlphaBetaSearchTest.MIDGAME);
+        Board copy = Board.deepCopy(board);
+        HeuristicFunction h = new PositionalHeuristic(Color.WHITE);
+
+        ParallelSearch search = new ParallelSearch(h, new TranspositionTable(4), 4);
+        for (int i = 0; i < 3; ++i) {
+            SearchResult result = search.search(board, Color.WHITE, SearchLimits.depth(6));
+
+            assertThat(result.depth).isEqualTo(6);
+            assertThat(board.legalMoves(Color.WHITE) & (1L << result.move)).isNotZero();
+        }
+        search.shutdown();
+
+        assertThat(board).isEqualTo(copy);
+    }
+
+    @Test
+    @DisplayName("stops every thread when the time runs out")
+    void testTimeLimit() throws Exception {
+        Board board = BoardFactory.getFactory().newGame();
+        ParallelSearch search = new ParallelSearch(new PositionalHeuristic(Color.BLACK), new TranspositionTable(4), 3);
+
+        SearchResult result = search.search(board, Color.BLACK, SearchLimits.millis(200));
+        search.shutdown();
+
+        assertThat(result.nanos).isLessThan(2_000_000_000L);
+        assertThat(board.legalMoves(Color.BLACK) & (1L << result.move)).isNotZero();
+    }
+}
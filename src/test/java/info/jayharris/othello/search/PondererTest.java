@@ -0,0 +1,153 @@
+package info.jayharris.othello.search;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardFactory;
+import info.jayharris.othello.BoardSnapshot;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.heuristics.HeuristicFunction;
+import info.jayharris.othello.heuristics.PositionalHeuristic;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PondererTest {
+
+    @Test
+    @DisplayName("when the prediction hits, the next search starts from the pondered results")
+    void testHit() throws Exception {
+        HeuristicFunction h = new PositionalHeuristic(Color.BLACK);
+        SearchLimits limits = SearchLimits.depth(7);
+        BoardSnapshot position = BoardFactory.getFactory().newGame().snapshot().play(19);
+
+        AlphaBetaSearch search = new AlphaBetaSearch(h, new TranspositionTable(4));
+        Ponderer ponderer = new Ponderer(search, limits, true);
+        ponderer.start(position.toBoard(), Color.BLACK);
+        Thread.sleep(1000);
+
+        BoardSnapshot predicted = ponderer.getPrediction();
+        assertThat(predicted).isNotNull();
+        assertThat(ponderer.stop(predicted.toBoard(), Color.BLACK)).isTrue();
+        assertThat(ponderer.getHits()).isEqualTo(1);
+        ponderer.shutdown();
+
+        SearchResult pondered = search.search(predicted.toBoard(), Color.BLACK, limits);
+        SearchResult fresh = new AlphaBetaSearch(h, new TranspositionTable(4))
+                .search(predicted.toBoard(), Color.BLACK, limits);
+
+        assertThat(pondered.move).isEqualTo(fresh.move);
+        assertThat(pondered.nodes).isLessThan(fresh.nodes);
+    }
+
+    @Test
+    @DisplayName("when the prediction misses, pondering stops quickly")
+    void testMiss() throws Exception {
+        BoardSnapshot position = BoardFactory.getFactory().newGame().snapshot().play(19);
+        Ponderer ponderer = new Ponderer(new AlphaBetaSearch(new PositionalHeuristic(Color.BLACK)),
+                SearchLimits.builder().build(), true);
+
+        ponderer.start(position.toBoard(), Color.BLACK);
+        Thread.sleep(300);
+
+        BoardSnapshot predicted = ponderer.getPrediction();
+        long replies = position.legalMoves();
+        int reply = Long.numberOfTrailingZeros(replies);
+        if (predicted != null && position.play(reply).equals(predicted)) {
+            reply = 63 - Long.numberOfLeadingZeros(replies);
+        }
+        Board actual = position.play(reply).toBoard();
+
+        long start = System.nanoTime();
+        assertThat(ponderer.stop(actual, Color.BLACK)).isFalse();
+        assertThat(System.nanoTime() - start).isLessThan(500_000_000L);
+        assertThat(ponderer.getMisses()).isEqualTo(1);
+        ponderer.shutdown();
+    }
+
+    @Test
+    @DisplayName("doesn't ponder once the game is over")
+    void testGameOver() throws Exception {
+        Board board = BoardSnapshot.of(0x00000000ffffffffL, 0xffffffff00000000L, Color.WHITE).toBoard();
+        Ponderer ponderer = new Ponderer(new AlphaBetaSearch(new PositionalHeuristic(Color.BLACK)),
+                SearchLimits.depth(4), true);
+
+        ponderer.start(board, Color.BLACK);
+
+        assertThat(ponderer.stop(board, Color.BLACK)).isFalse();
+        assertThat(ponderer.getHits() + ponderer.getMisses()).isZero();
+        ponderer.shutdown();
+    }
+
+    @Test
+    @DisplayName("ponders in slices of one search")
+    void testOneSearch() throws Exception {
+        AlphaBetaSearch inner = new AlphaBetaSearch(new PositionalHeuristic(Color.BLACK), new TranspositionTable(4));
+        AtomicInteger newSearches = new AtomicInteger(), searches = new AtomicInteger(), slices = new AtomicInteger();
+        Search search = new Search() {
+            @Override
+            public SearchResult search(Board board, Color color, SearchLimits limits) {
+                searches.incrementAndGet();
+                return inner.search(board, color, limits);
+            }
+
+            @Override
+            public void newSearch() {
+                newSearches.incrementAndGet();
+                inner.newSearch();
+            }
+
+            @Override
+            public SearchResult resume(Board board, Color color, SearchLimits limits) {
+                slices.incrementAndGet();
+                return inner.resume(board, color, limits);
+            }
+
+            @Override
+            public void stop() {
+                inner.stop();
+            }
+        };
+
+        BoardSnapshot position = BoardFactory.getFactory().newGame().snapshot().play(19);
+        Ponderer ponderer = new Ponderer(search, SearchLimits.builder().build(), true);
+        ponderer.start(position.toBoard(), Color.BLACK);
+        Thread.sleep(500);
+        ponderer.stop(position.toBoard(), Color.BLACK);
+        ponderer.shutdown();
+
+        assertThat(newSearches.get()).isEqualTo(1);
+        assertThat(searches.get()).isZero();
+        assertThat(slices.get()).isGreaterThan(2);
+    }
+
+    @Test
+    @DisplayName("keeps every thread of a parallel search busy in each slice")
+    void testParallelSlices() throws Exception {
+        List<Long> helperNodes = Collections.synchronizedList(new ArrayList<>());
+        ParallelSearch search = new ParallelSearch(new PositionalHeuristic(Color.BLACK), new TranspositionTable(4), 2) {
+            @Override
+            public SearchResult resume(Board board, Color color, SearchLimits limits) {
+                SearchResult result = super.resume(board, color, limits);
+                helperNodes.add(workers[1].nodes);
+                return result;
+            }
+        };
+
+        BoardSnapshot position = BoardFactory.getFactory().newGame().snapshot().play(19);
+        Ponderer ponderer = new Ponderer(search, SearchLimits.builder().build(), true);
+        ponderer.start(position.toBoard(), Color.BLACK);
+        Thread.sleep(1000);
+        ponderer.stop(position.toBoard(), Color.BLACK);
+        ponderer.shutdown();
+        search.shutdown();
+
+        // the last slice may have been stopped at any point
+        assertThat(helperNodes.size()).isGreaterThan(3);
+        assertThat(helperNodes.subList(1, helperNodes.size() - 1)).allMatch(nodes -> nodes > 10_000);
+    }
+}
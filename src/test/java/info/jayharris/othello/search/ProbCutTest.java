@@ -0,0 +1,92 @@
+package info.jayharris.othello.search;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardFactory;
+import info.jayharris.othello.Othello.Color;
+import info.jayharris.othello.heuristics.HeuristicFunction;
+import info.jayharris.othello.heuristics.PositionalHeuristic;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ProbCutTest {
+
+    @Test
+    @DisplayName("checks each depth with shallow depths of the same parity")
+    void testShallowDepths() throws Exception {
+        assertThat(ProbCut.shallowDepths(2)).isEmpty();
+        assertThat(ProbCut.shallowDepths(3)).containsExactly(1);
+        assertThat(ProbCut.shallowDepths(6)).containsExactly(2);
+        assertThat(ProbCut.shallowDepths(7)).containsExactly(1, 3);
+        assertThat(ProbCut.shallowDepths(8)).containsExactly(2, 4);
+    }
+
+    @Test
+    @DisplayName("fits a line through the samples")
+    void testFit() throws Exception {
+        ProbCut.Fit fit = new ProbCut.Fit();
+        for (int x = -10; x <= 10; ++x) {
+            fit.add(x, 2 * x + 3 + (x % 2 == 0 ? 1 : -1));
+        }
+
+        assertThat(fit.slope()).isCloseTo(2.0, within(0.01));
+        assertThat(fit.intercept()).isCloseTo(3.0, within(0.1));
+        assertThat(fit.sigma()).isCloseTo(1.0, within(0.1));
+    }
+
+    @Test
+    @DisplayName("reads back the parameters it writes")
+    void testSaveAndLoad() throws Exception {
+        ProbCut probCut = new ProbCut();
+        probCut.set(2, 7, 3, 1.125, -7.5, 26.75);
+        Path path = Files.createTempFile("probcut", ".txt");
+
+        try {
+            probCut.save(path);
+            ProbCut loaded = ProbCut.load(path);
+
+            assertThat(loaded.has(2, 7, 3)).isTrue();
+            assertThat(loaded.has(2, 7, 1)).isFalse();
+            assertThat(loaded.getSlope(2, 7, 3)).isEqualTo(1.125);
+            assertThat(loaded.getIntercept(2, 7, 3)).isEqualTo(-7.5);
+            assertThat(loaded.getSigma(2, 7, 3)).isEqualTo(26.75);
+        }
+        finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    @DisplayName("prunes the search when the parameters say the shallow score is reliable")
+    void testPrunes() throws Exception {
+        Board board = BoardFactory.getFactory().fromString(AlphaBetaSearchTest.MIDGAME);
+        HeuristicFunction h = new PositionalHeuristic(Color.BLACK);
+
+        ProbCut probCut = new ProbCut();
+        for (int stage = 0; stage < ProbCut.STAGES; ++stage) {
+            for (int deep = ProbCut.MIN_DEPTH; deep <= 6; ++deep) {
+                for (int shallow : ProbCut.shallowDepths(deep)) {
+                    probCut.set(stage, deep, shallow, 1.0, 0.0, 5.0);
+                }
+            }
+        }
+
+        SearchResult plain = new AlphaBetaSearch(h).search(board, Color.BLACK, SearchLimits.depth(6));
+        AlphaBetaSearch search = new AlphaBetaSearch(h);
+        search.setProbCut(new ProbCut());
+        SearchResult uncalibrated = search.search(board, Color.BLACK, SearchLimits.depth(6));
+        search.setProbCut(probCut);
+        SearchResult pruned = search.search(board, Color.BLACK, SearchLimits.depth(6));
+
+        assertThat(uncalibrated.score).isEqualTo(plain.score);
+        assertThat(uncalibrated.nodes).isEqualTo(plain.nodes);
+        assertThat(pruned.depth).isEqualTo(6);
+        assertThat(pruned.nodes).isLessThan(plain.nodes);
+        assertThat(board.legalMoves(Color.BLACK) & (1L << pruned.move)).isNotZero();
+    }
+}
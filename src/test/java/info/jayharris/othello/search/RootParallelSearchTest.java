@@ -0,0 +1,32 @@
+package info.jayharris.othello.search;
+
+import info.jayharris.othello.Board;
+import info.jayharris.othello.BoardFactory;
+import info.jayharris.othello.Othello.Color;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RootParallelSearchTest {
+
+    @Test
+    @DisplayName("splits the playouts between the trees and merges their root moves")
+    void testSearch() throws Exception {
+        Board board = BoardFactory.getFactory().fromString(AlphaBetaSearchTest.MIDGAME);
+        RootParallelSearch search = new RootParallelSearch(
+                1 << 14, MonteCarloTreeSearch.DEFAULT_EXPLORATION, new SplittableRandom(5L), 3);
+
+        SearchResult result = search.search(board, Color.BLACK, SearchLimits.builder().nodes(3000).build());
+        search.shutdown();
+
+        assertThat(result.nodes).isEqualTo(3000);
+        for (MonteCarloTreeSearch tree : search.trees) {
+            assertThat(tree.getRootVisits()).isEqualTo(1000);
+        }
+        assertThat(result.score).isBetween(0L, 1000L);
+        assertThat(board.legalMoves(Color.BLACK) & (1L << result.move)).isNotZero();
+    }
+}
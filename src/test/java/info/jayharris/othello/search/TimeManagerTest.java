@@ -0,0 +1,81 @@
+package info.jayharris.othello.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeManagerTest {
+
+    @Test
+    @DisplayName("spreads the remaining time over the remaining moves")
+    void testBudget() throws Exception {
+        TimeManager opening = new TimeManager(60_000, 0, 60);
+        TimeManager endgame = new TimeManager(60_000, 0, 10);
+
+        assertThat(opening.getTargetMillis()).isBetween(1_000L, 60_000L / 30);
+        assertThat(endgame.getTargetMillis()).isGreaterThan(opening.getTargetMillis());
+        assertThat(endgame.getMaximumMillis()).isLessThanOrEqualTo(30_000);
+        assertThat(opening.getMaximumMillis()).isGreaterThan(opening.getTargetMillis());
+    }
+
+    @Test
+    @DisplayName("never allows more than half the remaining time")
+    void testLastMove() throws Exception {
+        TimeManager timeManager = new TimeManager(1_000, 0, 1);
+
+        assertThat(timeManager.getMaximumMillis()).isLessThanOrEqualTo(500);
+        assertThat(timeManager.getTargetMillis()).isLessThanOrEqualTo(timeManager.getMaximumMillis());
+    }
+
+    @Test
+    @DisplayName("stops early once the best move is stable")
+    void testStableMove() throws Exception {
+        TimeManager timeManager = new TimeManager(60_000, 0, 40);
+        long elapsed = TimeUnit.MILLISECONDS.toNanos(timeManager.getTargetMillis()) * 3 / 10;
+
+        assertThat(timeManager.shouldStop(19, 10, elapsed)).isFalse();
+        assertThat(timeManager.shouldStop(19, 10, elapsed)).isFalse();
+        assertThat(timeManager.shouldStop(19, 10, elapsed)).isFalse();
+        assertThat(timeManager.shouldStop(19, 10, elapsed)).isTrue();
+    }
+
+    @Test
+    @DisplayName("takes more time when the score drops")
+    void testScoreDrop() throws Exception {
+        TimeManager timeManager = new TimeManager(60_000, 0, 40);
+        long elapsed = TimeUnit.MILLISECONDS.toNanos(timeManager.getTargetMillis()) * 6 / 10;
+
+        assertThat(timeManager.shouldStop(19, 100, 0)).isFalse();
+        assertThat(timeManager.shouldStop(26, 50, 0)).isFalse();
+        assertThat(timeManager.shouldStop(37, 0, elapsed)).isFalse();
+
+        timeManager = new TimeManager(60_000, 0, 40);
+        timeManager.shouldStop(19, 100, 0);
+        timeManager.shouldStop(26, 50, 0);
+        assertThat(timeManager.shouldStop(37, 100, elapsed)).isTrue();
+    }
+
+    @Test
+    @DisplayName("narrows the limits to the move's budget")
+    void testApply() throws Exception {
+        TimeManager timeManager = new TimeManager(60_000, 0, 60);
+        SearchLimits limits = timeManager.apply(SearchLimits.builder().build());
+
+        assertThat(limits.millis).isEqualTo(timeManager.getMaximumMillis());
+        assertThat(limits.timeManager).isSameAs(timeManager);
+    }
+
+    @Test
+    @DisplayName("counts time spent before the search")
+    void testSpend() throws Exception {
+        TimeManager timeManager = new TimeManager(60_000, 0, 40);
+        long target = TimeUnit.MILLISECONDS.toNanos(timeManager.getTargetMillis());
+
+        assertThat(timeManager.shouldStop(19, 10, target / 4)).isFalse();
+        timeManager.spend(target / 4);
+        assertThat(timeManager.shouldStop(26, 10, target / 4)).isTrue();
+    }
+}
@@ -0,0 +1,75 @@
+package info.jayharris.othello.search;
+
+import info.jayharris.othello.search.TranspositionTable.Bound;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TranspositionTableTest {
+
+    @Test
+    @DisplayName("returns what was stored")
+    void testStoreAndProbe() throws Exception {
+        TranspositionTable tt = new TranspositionTable(1);
+
+        tt.store(0x123456789abcdefL, 7, Bound.LOWER, -AlphaBetaSearch.WIN_SCORE - 12, 42);
+        long entry = tt.probe(0x123456789abcdefL);
+
+        assertThat(entry).isNotZero();
+        assertThat(TranspositionTable.depth(entry)).isEqualTo(7);
+        assertThat(TranspositionTable.bound(entry)).isEqualTo(Bound.LOWER);
+        assertThat(TranspositionTable.score(entry)).isEqualTo(-AlphaBetaSearch.WIN_SCORE - 12);
+        assertThat(TranspositionTable.move(entry)).isEqualTo(42);
+
+        assertThat(tt.probe(0x123456789abcdeeL)).isZero();
+    }
+
+    @Test
+    @DisplayName("keeps the deeper entry when two positions share a bucket")
+    void testDepthPreferred() throws Exception {
+        TranspositionTable tt = new TranspositionTable(1);
+        long deep = 5L, shallow = deep + ((long) tt.capacity() << 32), newest = shallow + ((long) tt.capacity() << 33);
+
+        tt.store(deep, 9, Bound.EXACT, 1, 1);
+        tt.store(shallow, 2, Bound.EXACT, 2, 2);
+        tt.store(newest, 3, Bound.EXACT, 3, 3);
+
+        assertThat(tt.probe(deep)).isNotZero();
+        assertThat(tt.probe(shallow)).isZero();
+        assertThat(tt.probe(newest)).isNotZero();
+    }
+
+    @Test
+    @DisplayName("never returns an entry that was torn by concurrent writers")
+    void testConcurrentWriters() throws Exception {
+        TranspositionTable tt = new TranspositionTable(1);
+        AtomicBoolean torn = new AtomicBoolean(false);
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; ++t) {
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 200_000; ++i) {
+                    long key = random.nextLong(64);
+                    tt.store(key, (int) key, Bound.EXACT, key * 3, (int) key);
+
+                    long entry = tt.probe(random.nextLong(64));
+                    if (entry != 0 && TranspositionTable.score(entry) != TranspositionTable.depth(entry) * 3L) {
+                        torn.set(true);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(torn.get()).isFalse();
+    }
+}